@@ -0,0 +1,137 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the JPA layer against a private H2 database and fills it with a deterministic dataset for benchmarks.
+ * <p>
+ * Students are named {@code First<n % 500>} / {@code Last<n % 1000>}, courses {@code Course <d>-<k>} in
+ * {@code Department <d>}, and the n-th student is enrolled in {@code n % 4} courses.
+ */
+final class BenchmarkDataset {
+
+	static final int COURSES = 200;
+
+	static final int DEPARTMENTS = 10;
+
+	/**
+	 * Properties turning off the Spring caches and the Hibernate second-level and query caches,
+	 * for benchmarks that repeat the same reads but have to measure the queries behind them.
+	 */
+	static final String[] WITHOUT_CACHES = {
+			"spring.cache.type=none",
+			"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+			"spring.jpa.properties.hibernate.cache.use_query_cache=false"
+	};
+
+	private static final int BATCH_SIZE = 10_000;
+
+	private BenchmarkDataset() {
+
+	}
+
+	/**
+	 * Starts the application without a web server, using an in-memory database of the given name.
+	 *
+	 * @param database   The name of the H2 database, unique per dataset.
+	 * @param properties Further properties, such as turning the caches off.
+	 * @return The running application context.
+	 */
+	static ConfigurableApplicationContext start(String database, String... properties) {
+		return new SpringApplicationBuilder(RaufRasulzadaApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+						"spring.jpa.show-sql=false",
+						"logging.level.root=WARN")
+				.properties(properties)
+				.run();
+	}
+
+	/**
+	 * Starts the whole application, with its web server on a random port, using an in-memory database of the given name.
+	 *
+	 * @param database   The name of the H2 database, unique per dataset.
+	 * @param properties Further properties, such as the threading model.
+	 * @return The running application context; the port is the {@code local.server.port} property.
+	 */
+	static ConfigurableApplicationContext startServer(String database, String... properties) {
+		return new SpringApplicationBuilder(RaufRasulzadaApplication.class)
+				.web(WebApplicationType.SERVLET)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+						"spring.jpa.show-sql=false",
+						"server.port=0",
+						"logging.level.root=WARN")
+				.properties(properties)
+				.run();
+	}
+
+	/**
+	 * Inserts the courses, students and enrollments of a dataset with set-based and batched statements.
+	 *
+	 * @param jdbcTemplate The template of the benchmark database.
+	 * @param students     The number of students to insert.
+	 */
+	static void seed(JdbcTemplate jdbcTemplate, int students) {
+		seed(jdbcTemplate, students, COURSES);
+	}
+
+	/**
+	 * Inserts a dataset with the given number of courses, spread over the departments.
+	 *
+	 * @param jdbcTemplate The template of the benchmark database.
+	 * @param students     The number of students to insert.
+	 * @param courses      The number of courses to insert.
+	 */
+	static void seed(JdbcTemplate jdbcTemplate, int students, int courses) {
+		jdbcTemplate.update("INSERT INTO courses (id, coursename, department) " +
+				"SELECT NEXT VALUE FOR courses_seq, 'Course ' || MOD(x, ?) || '-' || x, 'Department ' || MOD(x, ?) " +
+				"FROM SYSTEM_RANGE(0, ?)", DEPARTMENTS, DEPARTMENTS, courses - 1);
+		jdbcTemplate.update("INSERT INTO students (id, firstname, lastname) " +
+				"SELECT NEXT VALUE FOR students_seq, 'First' || MOD(x, 500), 'Last' || MOD(x, 1000) " +
+				"FROM SYSTEM_RANGE(0, ?)", students - 1);
+
+		List<Long> courseIds = jdbcTemplate.queryForList("SELECT id FROM courses WHERE coursename LIKE 'Course %-%' ORDER BY id", Long.class);
+		List<Long> studentIds = jdbcTemplate.queryForList("SELECT id FROM students WHERE firstname LIKE 'First%' ORDER BY id", Long.class);
+		List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+		for (int n = 0; n < studentIds.size(); n++) {
+			for (int k = 0; k < n % 4; k++) {
+				batch.add(new Object[]{studentIds.get(n), courseIds.get((n * 31 + k * 7) % courseIds.size())});
+				if (batch.size() == BATCH_SIZE) {
+					enroll(jdbcTemplate, batch);
+				}
+			}
+		}
+		enroll(jdbcTemplate, batch);
+	}
+
+	/**
+	 * Enrolls the given number of new students in a course, for benchmarks of writes that touch every enrollment.
+	 *
+	 * @param jdbcTemplate The template of the benchmark database.
+	 * @param courseId     The ID of the course.
+	 * @param enrollments  The number of students to enroll.
+	 */
+	static void enrollNewStudents(JdbcTemplate jdbcTemplate, long courseId, int enrollments) {
+		jdbcTemplate.update("DELETE FROM students WHERE firstname = 'Enrolled' " +
+				"AND NOT EXISTS (SELECT 1 FROM studentcourse sc WHERE sc.studentid = students.id)");
+		jdbcTemplate.update("INSERT INTO students (id, firstname, lastname) " +
+				"SELECT NEXT VALUE FOR students_seq, 'Enrolled', CAST(? AS VARCHAR) FROM SYSTEM_RANGE(1, ?)", courseId, enrollments);
+		jdbcTemplate.update("INSERT INTO studentcourse (studentid, courseid) " +
+				"SELECT id, ? FROM students WHERE firstname = 'Enrolled' AND lastname = CAST(? AS VARCHAR)", courseId, courseId);
+	}
+
+	private static void enroll(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+		if (!batch.isEmpty()) {
+			jdbcTemplate.batchUpdate("INSERT INTO studentcourse (studentid, courseid) VALUES (?, ?)", batch);
+			batch.clear();
+		}
+	}
+}
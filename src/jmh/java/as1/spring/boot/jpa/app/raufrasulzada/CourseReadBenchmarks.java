@@ -0,0 +1,113 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CourseOption;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the course read paths of the service layer: offset and keyset listings, the course options
+ * and every search combination.
+ * <p>
+ * With {@code caches=off} the Spring caches and the Hibernate second-level cache are turned off, so every
+ * invocation runs its queries; with {@code caches=on} repeated reads are answered by the caches, as they are
+ * in the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class CourseReadBenchmarks {
+
+	private static final int STUDENTS = 10_000;
+
+	private static final String COURSE_NAME = "course 3-1";
+
+	private static final String DEPARTMENT = "Department 3";
+
+	@Param({"200", "20000"})
+	public int courses;
+
+	@Param({"on", "off"})
+	public String caches;
+
+	private ConfigurableApplicationContext context;
+
+	private CrService crService;
+
+	@Setup(Level.Trial)
+	public void startApplication() {
+		context = BenchmarkDataset.start("jmh-courses-" + courses + "-" + caches,
+				caches.equals("off") ? BenchmarkDataset.WITHOUT_CACHES : new String[0]);
+		BenchmarkDataset.seed(context.getBean(JdbcTemplate.class), STUDENTS, courses);
+		crService = context.getBean(CrService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public Page<Course> listAll() {
+		return crService.retrieveAllCoursesPaginated(firstPage());
+	}
+
+	@Benchmark
+	public Page<Course> listAllDeepPage() {
+		return crService.retrieveAllCoursesPaginated(PageRequest.of(courses / 10, 5, Sort.by("courseName")));
+	}
+
+	@Benchmark
+	public Window<Course> keysetAll() {
+		return crService.retrieveAllCoursesAfter(null, Sort.by("courseName"), 5);
+	}
+
+	@Benchmark
+	public List<CourseOption> courseOptions() {
+		return crService.retrieveCourseOptions();
+	}
+
+	@Benchmark
+	public Page<Course> byCourseName() {
+		return crService.retrieveCoursesByCourseName(COURSE_NAME, firstPage());
+	}
+
+	@Benchmark
+	public Page<Course> byDepartment() {
+		return crService.retrieveCoursesByDepartment(DEPARTMENT, firstPage());
+	}
+
+	@Benchmark
+	public Page<Course> byCourseNameAndDepartment() {
+		return crService.retrieveCoursesByCourseNameAndDepartment("Course 3-13", DEPARTMENT, firstPage());
+	}
+
+	private static Pageable firstPage() {
+		return PageRequest.of(0, 5, Sort.by("courseName"));
+	}
+}
@@ -0,0 +1,98 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request handling on Tomcat's platform thread pool with handling on virtual threads
+ * (the {@code virtual-threads} profile), at a high number of concurrent requests.
+ * <p>
+ * Each invocation sends a burst of concurrent student searches to the running server and waits for all of them,
+ * so the score is the time to drain the burst. With platform threads the surplus requests queue for one of
+ * Tomcat's 200 threads; with virtual threads every request gets a thread and queues for a database permit instead.
+ * <p>
+ * Every burst repeats the same searches, so the caches are turned off; otherwise all but the first burst would be
+ * answered from them and the requests would hardly wait for the database at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class RequestThreadingBenchmarks {
+
+	private static final int STUDENTS = 10_000;
+
+	@Param({"platform", "virtual"})
+	public String threads;
+
+	@Param({"250", "1000"})
+	public int concurrency;
+
+	private ConfigurableApplicationContext context;
+
+	private HttpClient client;
+
+	private List<HttpRequest> requests;
+
+	@Setup(Level.Trial)
+	public void startServer() {
+		List<String> properties = new ArrayList<>(List.of(BenchmarkDataset.WITHOUT_CACHES));
+		properties.add("spring.threads.virtual.enabled=" + threads.equals("virtual"));
+		context = BenchmarkDataset.startServer("jmh-threads-" + threads + "-" + concurrency, properties.toArray(String[]::new));
+		BenchmarkDataset.seed(context.getBean(JdbcTemplate.class), STUDENTS);
+		String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		requests = new ArrayList<>(concurrency);
+		for (int i = 0; i < concurrency; i++) {
+			requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/students?firstName=First" + i % 500
+					+ "&courseName=Course%20" + i % BenchmarkDataset.DEPARTMENTS)).GET().build());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void stopServer() {
+		context.close();
+	}
+
+	@Benchmark
+	public int burst() {
+		List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+		for (HttpRequest request : requests) {
+			responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+		}
+		int ok = 0;
+		for (CompletableFuture<HttpResponse<Void>> response : responses) {
+			if (response.join().statusCode() == 200) {
+				ok++;
+			}
+		}
+		if (ok != concurrency) {
+			throw new IllegalStateException((concurrency - ok) + " of " + concurrency + " requests failed");
+		}
+		return ok;
+	}
+}
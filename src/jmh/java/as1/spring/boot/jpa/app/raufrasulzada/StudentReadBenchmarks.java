@@ -0,0 +1,136 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the student read paths of the service layer: every search combination,
+ * offset, slice and keyset listings, and the lookup by details.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class StudentReadBenchmarks {
+
+	private static final String FIRST_NAME = "First7";
+
+	private static final String LAST_NAME = "Last7";
+
+	private static final String COURSE_NAME = "Course 3-1";
+
+	@Param({"10000", "100000", "1000000"})
+	public int students;
+
+	private ConfigurableApplicationContext context;
+
+	private StdService stdService;
+
+	private Student knownStudent;
+
+	@Setup(Level.Trial)
+	public void startApplication() {
+		context = BenchmarkDataset.start("jmh-read-" + students);
+		BenchmarkDataset.seed(context.getBean(JdbcTemplate.class), students);
+		stdService = context.getBean(StdService.class);
+		Student student = stdService.retrieveStudents(new StudentFilter(FIRST_NAME, LAST_NAME, null), firstPage()).getContent().get(0);
+		knownStudent = new Student(student.getFirstName(), student.getLastName());
+		knownStudent.setCourses(new HashSet<>(student.getCourses()));
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public Page<Student> listAll() {
+		return stdService.retrieveStudents(new StudentFilter(), firstPage());
+	}
+
+	@Benchmark
+	public Page<Student> listAllDeepPage() {
+		return stdService.retrieveStudents(new StudentFilter(), PageRequest.of(students / 10, 5, Sort.by("firstName")));
+	}
+
+	@Benchmark
+	public Slice<Student> sliceAll() {
+		return stdService.retrieveStudentSlice(new StudentFilter(), firstPage());
+	}
+
+	@Benchmark
+	public Window<Student> keysetAll() {
+		return stdService.retrieveStudentsAfter(new StudentFilter(), null, Sort.by("firstName"), 5);
+	}
+
+	@Benchmark
+	public Page<Student> byFirstName() {
+		return stdService.retrieveStudents(new StudentFilter(FIRST_NAME, null, null), firstPage());
+	}
+
+	@Benchmark
+	public Page<Student> byLastName() {
+		return stdService.retrieveStudents(new StudentFilter(null, LAST_NAME, null), firstPage());
+	}
+
+	@Benchmark
+	public Page<Student> byCourseName() {
+		return stdService.retrieveStudents(new StudentFilter(null, null, COURSE_NAME), firstPage());
+	}
+
+	@Benchmark
+	public Page<Student> byFirstNameAndLastName() {
+		return stdService.retrieveStudents(new StudentFilter(FIRST_NAME, LAST_NAME, null), firstPage());
+	}
+
+	@Benchmark
+	public Page<Student> byFirstNameAndCourseName() {
+		return stdService.retrieveStudents(new StudentFilter(FIRST_NAME, null, COURSE_NAME), firstPage());
+	}
+
+	@Benchmark
+	public Page<Student> byLastNameAndCourseName() {
+		return stdService.retrieveStudents(new StudentFilter(null, LAST_NAME, COURSE_NAME), firstPage());
+	}
+
+	@Benchmark
+	public Page<Student> byFirstNameLastNameAndCourseName() {
+		return stdService.retrieveStudents(new StudentFilter(FIRST_NAME, LAST_NAME, COURSE_NAME), firstPage());
+	}
+
+	@Benchmark
+	public Student findStudentByDetails() {
+		return stdService.findStudentByDetails(knownStudent);
+	}
+
+	private static Pageable firstPage() {
+		return PageRequest.of(0, 5, Sort.by("firstName"));
+	}
+}
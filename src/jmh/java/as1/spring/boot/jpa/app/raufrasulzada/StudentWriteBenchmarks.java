@@ -0,0 +1,168 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import org.openjdk.jmh.annotations.Benchmark;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the write paths of the service layer: saving a student with several courses,
+ * deleting a course that many students are enrolled in and a bulk {@code saveAll} of students
+ * with and without JDBC batching.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx2g"})
+public class StudentWriteBenchmarks {
+
+	private static final int STUDENTS = 10_000;
+
+	/**
+	 * An application with the base dataset, shared by all write benchmarks of one fork.
+	 */
+	@State(Scope.Benchmark)
+	public static class Application {
+
+		ConfigurableApplicationContext context;
+
+		StdService stdService;
+
+		CrService crService;
+
+		JdbcTemplate jdbcTemplate;
+
+		@Setup(Level.Trial)
+		public void start() {
+			context = BenchmarkDataset.start("jmh-write");
+			jdbcTemplate = context.getBean(JdbcTemplate.class);
+			BenchmarkDataset.seed(jdbcTemplate, STUDENTS);
+			stdService = context.getBean(StdService.class);
+			crService = context.getBean(CrService.class);
+		}
+
+		@TearDown(Level.Trial)
+		public void stop() {
+			context.close();
+		}
+	}
+
+	/**
+	 * The courses a new student is enrolled in.
+	 */
+	@State(Scope.Benchmark)
+	public static class Enrollment {
+
+		@Param({"1", "5", "20"})
+		public int coursesPerStudent;
+
+		List<Course> courses;
+
+		@Setup(Level.Trial)
+		public void loadCourses(Application application) {
+			courses = application.crService.retrieveAllCourses().subList(0, coursesPerStudent);
+		}
+	}
+
+	/**
+	 * A freshly created course with the given number of enrolled students, recreated before every deletion.
+	 */
+	@State(Scope.Benchmark)
+	public static class PopularCourse {
+
+		@Param({"1000", "10000", "100000"})
+		public int enrollments;
+
+		Long courseId;
+
+		@Setup(Level.Invocation)
+		public void createCourse(Application application) {
+			courseId = application.crService.saveCourse(new Course("Popular Course", "Benchmark")).getId();
+			BenchmarkDataset.enrollNewStudents(application.jdbcTemplate, courseId, enrollments);
+		}
+	}
+
+	/**
+	 * A bulk insert of students enrolled in a few courses, with the JDBC batch size of the session:
+	 * 1 disables batching, as IDENTITY generation would, and 50 is the configured size.
+	 */
+	@State(Scope.Benchmark)
+	public static class BulkInsert {
+
+		static final int STUDENTS = 1_000;
+
+		@Param({"1", "50"})
+		public int jdbcBatchSize;
+
+		EntityManager entityManager;
+
+		TransactionTemplate transactionTemplate;
+
+		StudentRepo studentRepo;
+
+		List<Long> courseIds;
+
+		@Setup(Level.Trial)
+		public void prepare(Application application) {
+			entityManager = application.context.getBean(EntityManager.class);
+			transactionTemplate = application.context.getBean(TransactionTemplate.class);
+			studentRepo = application.context.getBean(StudentRepo.class);
+			courseIds = application.crService.retrieveAllCourses().subList(0, 3).stream().map(Course::getId).toList();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BulkInsert.STUDENTS)
+	public List<Student> saveAllStudents(Application application, BulkInsert bulk) {
+		return bulk.transactionTemplate.execute(status -> {
+			bulk.entityManager.unwrap(Session.class).setJdbcBatchSize(bulk.jdbcBatchSize);
+			Set<Course> courses = new HashSet<>(application.crService.retrieveCoursesByIds(bulk.courseIds));
+			List<Student> students = new ArrayList<>(BulkInsert.STUDENTS);
+			for (int i = 0; i < BulkInsert.STUDENTS; i++) {
+				Student student = new Student("Bulk", "Student" + i);
+				student.setCourses(new HashSet<>(courses));
+				students.add(student);
+			}
+			return bulk.studentRepo.saveAll(students);
+		});
+	}
+
+	@Benchmark
+	public Student saveStudent(Application application, Enrollment enrollment) {
+		Student student = new Student("Benchmark", "Student");
+		student.setCourses(new HashSet<>(enrollment.courses));
+		return application.stdService.saveStudent(student);
+	}
+
+	@Benchmark
+	public void deleteCourseById(Application application, PopularCourse course) {
+		application.crService.deleteCourseById(course.courseId);
+	}
+}
@@ -0,0 +1,380 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-loop HTTP load generator for the Thymeleaf endpoints of a running application.
+ * <p>
+ * Requests are started at a fixed rate whether or not earlier ones have completed, and each latency is
+ * measured from the moment its request was scheduled, so a slow server shows up as higher latency instead
+ * of a lower request rate. Latencies are recorded per route in HdrHistogram histograms.
+ * <p>
+ * Options, all given as {@code --name=value}:
+ * <ul>
+ *     <li>{@code url}: the base URL of the application (default {@code http://localhost:8080})</li>
+ *     <li>{@code rate}: requests started per second (default 50)</li>
+ *     <li>{@code duration}: measured run time in seconds (default 30)</li>
+ *     <li>{@code warmup}: run time in seconds before measuring starts (default 5)</li>
+ *     <li>{@code max-in-flight}: requests allowed to be outstanding; further requests count as errors (default 1000)</li>
+ *     <li>{@code first-name}, {@code last-name}, {@code course-name}: filter values that match existing data
+ *     (defaults match the sample data)</li>
+ *     <li>{@code seed}: the seed for picking routes and parameters (default 42)</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+	private static final Pattern COURSE_OPTION = Pattern.compile("<option value=\"(\\d+)\"");
+
+	private static final Pattern STUDENT_LINK = Pattern.compile("/students/update/(\\d+)");
+
+	private static final Pattern COURSE_LINK = Pattern.compile("/courses/update/(\\d+)");
+
+	private static final String[] SORT_FIELDS = {"firstName", "lastName"};
+
+	private static final String[] SORT_ORDERS = {"asc", "desc"};
+
+	private static final String LOAD_TEST_NAME = "LoadTest";
+
+	private final Map<String, String> options;
+
+	private final String baseUrl;
+
+	private final HttpClient client;
+
+	private final List<Route> routes = new ArrayList<>();
+
+	private final Map<String, RouteStats> stats = new LinkedHashMap<>();
+
+	private final AtomicLong studentSequence = new AtomicLong();
+
+	private final List<String> updatableIds = new ArrayList<>();
+
+	private final ConcurrentLinkedQueue<String> deletableIds = new ConcurrentLinkedQueue<>();
+
+	private final List<String> updatableCourseIds = new ArrayList<>();
+
+	private final ConcurrentLinkedQueue<String> deletableCourseIds = new ConcurrentLinkedQueue<>();
+
+	private List<String> courseIds;
+
+	private LoadTest(Map<String, String> options) {
+		this.options = options;
+		this.baseUrl = option("url", "http://localhost:8080");
+		this.client = HttpClient.newBuilder()
+				.connectTimeout(Duration.ofSeconds(5))
+				.followRedirects(HttpClient.Redirect.NEVER)
+				.build();
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--") || !arg.contains("=")) {
+				throw new IllegalArgumentException("Expected --name=value but got " + arg);
+			}
+			options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+		}
+		new LoadTest(options).run();
+	}
+
+	private void run() throws Exception {
+		int rate = Integer.parseInt(option("rate", "50"));
+		int duration = Integer.parseInt(option("duration", "30"));
+		int warmup = Integer.parseInt(option("warmup", "5"));
+		Semaphore inFlight = new Semaphore(Integer.parseInt(option("max-in-flight", "1000")));
+		Random random = new Random(Long.parseLong(option("seed", "42")));
+
+		prepareData(rate * (warmup + duration));
+		defineRoutes();
+		int totalWeight = routes.stream().mapToInt(Route::weight).sum();
+
+		System.out.printf("Driving %s at %d requests/s for %ds after %ds of warmup%n", baseUrl, rate, duration, warmup);
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+		long start = System.nanoTime();
+		long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+		long end = measureFrom + TimeUnit.SECONDS.toNanos(duration);
+		for (long i = 0; ; i++) {
+			long scheduled = start + i * interval;
+			if (scheduled >= end) {
+				break;
+			}
+			long wait = scheduled - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			Route route = pick(random, totalWeight);
+			HttpRequest request = route.request().apply(random);
+			RouteStats routeStats = scheduled >= measureFrom ? stats.get(route.name()) : null;
+			if (!inFlight.tryAcquire()) {
+				if (routeStats != null) {
+					routeStats.reject();
+				}
+				continue;
+			}
+			executor.execute(() -> {
+				try {
+					int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+					if (routeStats != null) {
+						routeStats.record(System.nanoTime() - scheduled, status < 400);
+					}
+				} catch (IOException | InterruptedException e) {
+					if (routeStats != null) {
+						routeStats.record(System.nanoTime() - scheduled, false);
+					}
+				} finally {
+					inFlight.release();
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+		report(duration);
+	}
+
+	/**
+	 * Looks up course IDs and creates the students and courses that the update and delete routes work on.
+	 */
+	private void prepareData(int maxRequests) throws IOException, InterruptedException {
+		courseIds = matches(COURSE_OPTION, get("/students/new"));
+		if (courseIds.isEmpty()) {
+			throw new IllegalStateException("No courses found at " + baseUrl + "/students/new");
+		}
+		// Enough deletable students for the delete route even if it were picked for every request
+		int students = Math.max(50, maxRequests / 10);
+		System.out.printf("Creating %d %s students for the write routes%n", students, LOAD_TEST_NAME);
+		for (int i = 0; i < students; i++) {
+			send(saveStudent("Pool" + i, courseIds.get(i % courseIds.size())));
+		}
+		List<String> ids = new ArrayList<>();
+		for (int page = 0; ; page++) {
+			List<String> pageIds = matches(STUDENT_LINK, get("/students?firstName=" + LOAD_TEST_NAME + "&sortField=id&page=" + page));
+			if (pageIds.isEmpty() || ids.containsAll(pageIds)) {
+				break;
+			}
+			ids.addAll(pageIds);
+		}
+		if (ids.size() < 10) {
+			throw new IllegalStateException("Could not find the created students at " + baseUrl + "/students");
+		}
+		updatableIds.addAll(ids.subList(0, ids.size() / 10));
+		deletableIds.addAll(ids.subList(ids.size() / 10, ids.size()));
+
+		// The course write routes get courses of their own, so the students above keep valid course IDs
+		int courses = Math.max(20, maxRequests / 20);
+		System.out.printf("Creating %d %s courses for the write routes%n", courses, LOAD_TEST_NAME);
+		for (int i = 0; i < courses; i++) {
+			send(post("/courses", Map.of("courseName", LOAD_TEST_NAME + " Pool " + i, "department", LOAD_TEST_NAME)));
+		}
+		List<String> createdCourseIds = new ArrayList<>();
+		for (int page = 0; ; page++) {
+			List<String> pageIds = matches(COURSE_LINK, get("/courses?courseDepartment=" + LOAD_TEST_NAME + "&sortField=id&page=" + page));
+			if (pageIds.isEmpty() || createdCourseIds.containsAll(pageIds)) {
+				break;
+			}
+			createdCourseIds.addAll(pageIds);
+		}
+		if (createdCourseIds.size() < 10) {
+			throw new IllegalStateException("Could not find the created courses at " + baseUrl + "/courses");
+		}
+		updatableCourseIds.addAll(createdCourseIds.subList(0, createdCourseIds.size() / 10));
+		deletableCourseIds.addAll(createdCourseIds.subList(createdCourseIds.size() / 10, createdCourseIds.size()));
+	}
+
+	private void defineRoutes() {
+		String firstName = option("first-name", "First");
+		String lastName = option("last-name", "StudentFirst");
+		String courseName = option("course-name", "Calculus");
+		for (int filters = 0; filters < 8; filters++) {
+			Map<String, String> query = new LinkedHashMap<>();
+			if ((filters & 1) != 0) {
+				query.put("firstName", firstName);
+			}
+			if ((filters & 2) != 0) {
+				query.put("lastName", lastName);
+			}
+			if ((filters & 4) != 0) {
+				query.put("courseName", courseName);
+			}
+			String name = "GET /students" + (query.isEmpty() ? "" : " by " + String.join("+", query.keySet()));
+			route(name, filters == 0 ? 20 : 6, random -> {
+				Map<String, String> parameters = new LinkedHashMap<>(query);
+				parameters.put("sortField", SORT_FIELDS[random.nextInt(SORT_FIELDS.length)]);
+				parameters.put("sortOrder", SORT_ORDERS[random.nextInt(SORT_ORDERS.length)]);
+				parameters.put("page", String.valueOf(random.nextInt(3)));
+				return get("/students", parameters);
+			});
+		}
+		route("GET /courses", 10, random -> get("/courses", Map.of("page", String.valueOf(random.nextInt(3)))));
+		route("GET /students/new", 5, random -> get("/students/new", Map.of()));
+		route("POST /students", 5, random ->
+				saveStudent("Created" + studentSequence.incrementAndGet(), courseIds.get(random.nextInt(courseIds.size()))));
+		route("POST /students/update/{id}", 5, random -> post("/students/update/" + updatableIds.get(random.nextInt(updatableIds.size())),
+				Map.of("firstName", LOAD_TEST_NAME, "lastName", "Updated" + random.nextInt(1000),
+						"courseIds", courseIds.get(random.nextInt(courseIds.size())))));
+		route("GET /students/{id} (delete)", 3, random -> {
+			String id = deletableIds.poll();
+			return get("/students/" + (id != null ? id : "0"), Map.of());
+		});
+		route("POST /courses/update/{id}", 3, random -> {
+			String id = updatableCourseIds.get(random.nextInt(updatableCourseIds.size()));
+			// Course names are unique, so every course is renamed within its own set of names
+			return post("/courses/update/" + id, Map.of("courseName", LOAD_TEST_NAME + " Course " + id + " " + random.nextInt(1000)));
+		});
+		route("GET /courses/{id} (delete)", 2, random -> {
+			String id = deletableCourseIds.poll();
+			return get("/courses/" + (id != null ? id : "0"), Map.of());
+		});
+	}
+
+	private void route(String name, int weight, Function<Random, HttpRequest> request) {
+		routes.add(new Route(name, weight, request));
+		stats.put(name, new RouteStats());
+	}
+
+	private Route pick(Random random, int totalWeight) {
+		int value = random.nextInt(totalWeight);
+		for (Route route : routes) {
+			value -= route.weight();
+			if (value < 0) {
+				return route;
+			}
+		}
+		throw new IllegalStateException("Route weights changed");
+	}
+
+	private void report(int duration) {
+		System.out.printf("%n%-48s %9s %7s %7s %10s %10s %10s %10s%n", "Route", "Requests", "Errors", "Error%", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+		Histogram total = new Histogram(3);
+		long totalRequests = 0;
+		long totalErrors = 0;
+		for (Map.Entry<String, RouteStats> entry : stats.entrySet()) {
+			RouteStats routeStats = entry.getValue();
+			print(entry.getKey(), routeStats.latencies, routeStats.requests.get(), routeStats.errors.get());
+			total.add(routeStats.latencies);
+			totalRequests += routeStats.requests.get();
+			totalErrors += routeStats.errors.get();
+		}
+		print("All routes", total, totalRequests, totalErrors);
+		System.out.printf("Achieved %.1f completed requests/s%n", (double) total.getTotalCount() / duration);
+	}
+
+	private static void print(String name, Histogram latencies, long requests, long errors) {
+		System.out.printf("%-48s %9d %7d %6.2f%% %10.2f %10.2f %10.2f %10.2f%n", name, requests, errors,
+				requests == 0 ? 0.0 : 100.0 * errors / requests,
+				millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(99)),
+				millis(latencies.getValueAtPercentile(99.9)), millis(latencies.getMaxValue()));
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	private HttpRequest saveStudent(String lastName, String courseId) {
+		return post("/students", Map.of("firstName", LOAD_TEST_NAME, "lastName", lastName, "courseIds", courseId));
+	}
+
+	private HttpRequest get(String path, Map<String, String> parameters) {
+		String query = form(parameters);
+		return HttpRequest.newBuilder(URI.create(baseUrl + path + (query.isEmpty() ? "" : "?" + query)))
+				.timeout(Duration.ofSeconds(30))
+				.GET()
+				.build();
+	}
+
+	private HttpRequest post(String path, Map<String, String> parameters) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.timeout(Duration.ofSeconds(30))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form(parameters)))
+				.build();
+	}
+
+	private String get(String pathAndQuery) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery)).GET().build();
+		return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+	}
+
+	private void send(HttpRequest request) throws IOException, InterruptedException {
+		int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+		if (status >= 400) {
+			throw new IllegalStateException(request.method() + " " + request.uri() + " returned " + status);
+		}
+	}
+
+	private static String form(Map<String, String> parameters) {
+		StringJoiner joiner = new StringJoiner("&");
+		parameters.forEach((name, value) -> joiner.add(name + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8)));
+		return joiner.toString();
+	}
+
+	private static List<String> matches(Pattern pattern, String text) {
+		List<String> values = new ArrayList<>();
+		Matcher matcher = pattern.matcher(text);
+		while (matcher.find()) {
+			if (!values.contains(matcher.group(1))) {
+				values.add(matcher.group(1));
+			}
+		}
+		return values;
+	}
+
+	private String option(String name, String defaultValue) {
+		return options.getOrDefault(name, defaultValue);
+	}
+
+	private record Route(String name, int weight, Function<Random, HttpRequest> request) {
+	}
+
+	private static final class RouteStats {
+
+		private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+
+		private final AtomicLong requests = new AtomicLong();
+
+		private final AtomicLong errors = new AtomicLong();
+
+		void record(long latencyNanos, boolean success) {
+			latencies.recordValue(Math.min(latencyNanos, latencies.getHighestTrackableValue()));
+			requests.incrementAndGet();
+			if (!success) {
+				errors.incrementAndGet();
+			}
+		}
+
+		/**
+		 * Counts a request that was not sent because too many were already in flight.
+		 */
+		void reject() {
+			requests.incrementAndGet();
+			errors.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Controller;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CourseOption;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CourseSummary;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.KeysetCursor;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentFilter;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Controller class serving students and courses as JSON, for other services to consume.
+ * <p>
+ * Responses are built from column projections rather than entities, and are paginated with keyset cursors:
+ * every response carries the cursor of its next window, which is passed back as {@code after}.
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class ApiController {
+
+    static final int MAX_SIZE = 100;
+
+    private static final Set<String> STUDENT_SORT_FIELDS = Set.of("id", "firstName", "lastName");
+
+    private static final Set<String> COURSE_SORT_FIELDS = Set.of("id", "courseName", "department");
+
+    private final StdService stdService;
+
+    private final CrService crService;
+
+    private final CourseOptionFragments courseOptionFragments;
+
+    /**
+     * Mapping for listing students with their courses.
+     *
+     * @param firstName  The first name of the student to filter by.
+     * @param lastName   The last name of the student to filter by.
+     * @param courseName Text contained in the name of a course the student is enrolled in, matched case-sensitively.
+     * @param sortField  The field to sort by: id, firstName or lastName.
+     * @param sortOrder  The sorting order (asc/desc).
+     * @param after      The cursor of the previous window, or none for the first window.
+     * @param size       The maximum number of students to return, at most {@value #MAX_SIZE}.
+     * @return A window of students.
+     */
+    @GetMapping("/students")
+    public CursorPage<StudentSummary> listStudents(@RequestParam(required = false) String firstName,
+                                                   @RequestParam(required = false) String lastName,
+                                                   @RequestParam(required = false) String courseName,
+                                                   @RequestParam(defaultValue = "id") String sortField,
+                                                   @RequestParam(defaultValue = "asc") String sortOrder,
+                                                   @RequestParam(required = false) String after,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        Sort sort = toSort(sortField, sortOrder, STUDENT_SORT_FIELDS, size);
+        StudentFilter filter = new StudentFilter(firstName, lastName, courseName);
+        return toCursorPage(sort, () -> stdService.retrieveStudentSummaries(filter, after, sort, size));
+    }
+
+    /**
+     * Mapping for listing courses.
+     *
+     * @param courseName Text contained in the name of the course, matched case-sensitively.
+     * @param department The department of the course to filter by.
+     * @param sortField  The field to sort by: id, courseName or department.
+     * @param sortOrder  The sorting order (asc/desc).
+     * @param after      The cursor of the previous window, or none for the first window.
+     * @param size       The maximum number of courses to return, at most {@value #MAX_SIZE}.
+     * @return A window of courses.
+     */
+    @GetMapping("/courses")
+    public CursorPage<CourseSummary> listCourses(@RequestParam(required = false) String courseName,
+                                                 @RequestParam(required = false, name = "courseDepartment") String department,
+                                                 @RequestParam(defaultValue = "id") String sortField,
+                                                 @RequestParam(defaultValue = "asc") String sortOrder,
+                                                 @RequestParam(required = false) String after,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        Sort sort = toSort(sortField, sortOrder, COURSE_SORT_FIELDS, size);
+        return toCursorPage(sort, () -> crService.retrieveCourseSummaries(courseName, department, after, sort, size));
+    }
+
+    /**
+     * Mapping for listing the course options of the course dropdowns, as {@code [id, "name"]} pairs ordered by ID.
+     * Requested with the current catalog version as {@code v}, the response may be cached for good,
+     * since a course write changes the version and so the URL; otherwise it has to be revalidated.
+     * The version is stored in the database, so every instance answers a URL with the same options.
+     *
+     * @param version The catalog version the options are requested for.
+     * @return The course options, tagged with the catalog version.
+     */
+    @GetMapping("/courses/options")
+    public ResponseEntity<List<CourseOption>> listCourseOptions(@RequestParam(required = false, name = "v") Long version) {
+        long current = courseOptionFragments.version();
+        CacheControl cacheControl = Objects.equals(version, current)
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache();
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(Long.toString(current))
+                .body(courseOptionFragments.options(current));
+    }
+
+    private static Sort toSort(String sortField, String sortOrder, Set<String> sortFields, int size) {
+        if (!sortFields.contains(sortField)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot sort by " + sortField);
+        }
+        if (size < 1 || size > MAX_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be between 1 and " + MAX_SIZE);
+        }
+        try {
+            return Sort.by(Sort.Direction.fromString(sortOrder), sortField);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort order", e);
+        }
+    }
+
+    private static <T> CursorPage<T> toCursorPage(Sort sort, Supplier<Window<T>> query) {
+        Window<T> window;
+        try {
+            window = query.get();
+        } catch (IllegalArgumentException e) {
+            // Thrown by KeysetCursor for a malformed cursor or one issued for another sort field
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+        return new CursorPage<>(window.getContent(), KeysetCursor.next(window, sort));
+    }
+}
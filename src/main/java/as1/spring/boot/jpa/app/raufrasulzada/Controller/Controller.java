@@ -3,22 +3,35 @@ package as1.spring.boot.jpa.app.raufrasulzada.Controller;
 import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
 import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
 import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataVersionService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.KeysetCursor;
 import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentFilter;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.ui.Model;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * Controller class responsible for handling HTTP requests related to students and courses.
+ * <p>
+ * The student and course listings carry an entity tag derived from the data version, so a client
+ * revalidating an unchanged listing gets 304 Not Modified without any query or rendering.
+ * The course dropdowns of the student pages come from {@link CourseOptionFragments}.
  */
 @Data
 @RequiredArgsConstructor
@@ -29,6 +42,10 @@ public class Controller {
 
     private final CrService crService;
 
+    private final DataVersionService dataVersionService;
+
+    private final CourseOptionFragments courseOptionFragments;
+
      /**
      * Mapping for the homepage.
      *
@@ -43,57 +60,50 @@ public class Controller {
      * Mapping for listing students.
      *
      * @param model      The model to which attributes are added.
+     * @param request    The current request, checked against the entity tag of the listing.
      * @param page       The page number for pagination.
      * @param sortField  The field to sort by.
      * @param sortOrder  The sorting order (asc/desc).
      * @param firstName  The first name of the student to filter by.
      * @param lastName   The last name of the student to filter by.
      * @param courseName The name of the course to filter by.
-     * @return The name of the view to display the list of students.
+     * @param after      The keyset cursor of the last student shown; when present (even empty) on an unfiltered
+     *                   listing, keyset pagination is used instead of page numbers. The cursor only leads
+     *                   forward, so keyset pages link to the next and the first page but not the previous one.
+     * @return The name of the view to display the list of students, or null if the client's copy is current.
+     * @throws ResponseStatusException With 400 Bad Request if the cursor is malformed or was issued for another sort.
      */
     @GetMapping("/students")
     public String listStudents(Model model,
+                               ServletWebRequest request,
                                @RequestParam(defaultValue = "0") int page,
                                @RequestParam(defaultValue = "firstName") String sortField,
                                @RequestParam(defaultValue = "asc") String sortOrder,
                                @RequestParam(required = false) String firstName,
                                @RequestParam(required = false) String lastName,
-                               @RequestParam(required = false) String courseName) {
-        Page<Student> studentsPage;
-        // Check if all three search criteria are provided: firstName, lastName, and courseName
-        if (StringUtils.hasText(firstName) && StringUtils.hasText(lastName) && StringUtils.hasText(courseName)) {
-            studentsPage = stdService.retrieveStudentsByFirstNameLastNameAndCourseName(firstName, lastName, courseName, PageRequest.of(page, 5, Sort.by(Sort.Direction.fromString(sortOrder), sortField)));
-        }
-        // Check if firstName and courseName are provided
-        else if (StringUtils.hasText(firstName) && StringUtils.hasText(courseName)) {
-            studentsPage = stdService.retrieveStudentsByFirstNameAndCourseName(firstName, courseName, PageRequest.of(page, 5, Sort.by(Sort.Direction.fromString(sortOrder), sortField)));
-        }
-        // Check if lastName and courseName are provided
-        else if (StringUtils.hasText(lastName) && StringUtils.hasText(courseName)) {
-            studentsPage = stdService.retrieveStudentsByLastNameAndCourseName(lastName, courseName, PageRequest.of(page, 5, Sort.by(Sort.Direction.fromString(sortOrder), sortField)));
-        }
-        // Check if only courseName is provided
-        else if (StringUtils.hasText(courseName)) {
-            studentsPage = stdService.retrieveStudentsByCourseName(courseName, PageRequest.of(page, 5, Sort.by(Sort.Direction.fromString(sortOrder), sortField)));
-        }
-        // Check if firstName and lastName are provided
-        else if (StringUtils.hasText(firstName) && StringUtils.hasText(lastName)) {
-            studentsPage = stdService.retrieveStudentsByFirstNameAndLastName(firstName, lastName, PageRequest.of(page, 5, Sort.by(Sort.Direction.fromString(sortOrder), sortField)));
+                               @RequestParam(required = false) String courseName,
+                               @RequestParam(required = false) String after) {
+        if (notModified(request)) {
+            return null;
         }
-        // Check if only firstName is provided
-        else if (StringUtils.hasText(firstName)) {
-            studentsPage = stdService.retrieveStudentsByFirstName(firstName, PageRequest.of(page, 5, Sort.by(Sort.Direction.fromString(sortOrder), sortField)));
+        StudentFilter filter = new StudentFilter(firstName, lastName, courseName);
+        Sort sort = Sort.by(Sort.Direction.fromString(sortOrder), sortField);
+        // Keyset mode only applies to the unfiltered listing, where deep pages are the problem
+        if (after != null && filter.isEmpty()) {
+            Window<Student> studentsWindow = scroll(() -> stdService.retrieveStudentsAfter(filter, after, sort, 5));
+            courseOptionFragments.addByName(model);
+            model.addAttribute("students", studentsWindow.getContent());
+            model.addAttribute("currentPage", 0);
+            model.addAttribute("totalPages", 0);
+            model.addAttribute("nextCursor", KeysetCursor.next(studentsWindow, sort));
+            model.addAttribute("keyset", true);
+            model.addAttribute("sortField", sortField);
+            model.addAttribute("sortOrder", sortOrder);
+            model.addAttribute("courseName", courseName);
+            return "students";
         }
-        // Check if only lastName is provided
-        else if (StringUtils.hasText(lastName)) {
-            studentsPage = stdService.retrieveStudentsByLastName(lastName, PageRequest.of(page, 5, Sort.by(Sort.Direction.fromString(sortOrder), sortField)));
-        }
-        // If nothing is provided, retrieve all students paginated
-        else {
-            studentsPage = stdService.retrieveAllStudentsWithCoursesPaginated(PageRequest.of(page, 5, Sort.by(Sort.Direction.fromString(sortOrder), sortField)));
-        }
-        List<Course> courses = crService.retrieveAllCourses();
-        model.addAttribute("courses", courses);
+        Page<Student> studentsPage = stdService.retrieveStudents(filter, PageRequest.of(page, 5, sort));
+        courseOptionFragments.addByName(model);
         model.addAttribute("students", studentsPage.getContent());
         model.addAttribute("currentPage", studentsPage.getNumber());
         model.addAttribute("totalPages", studentsPage.getTotalPages());
@@ -107,20 +117,47 @@ public class Controller {
      * Mapping for listing courses.
      *
      * @param model      The model to which attributes are added.
+     * @param request    The current request, checked against the entity tag of the listing.
      * @param page       The page number for pagination.
      * @param sortField  The field to sort by.
      * @param sortOrder  The sorting order (asc/desc).
      * @param courseName The name of the course to filter by.
      * @param department The department of the course to filter by.
-     * @return The name of the view to display the list of courses.
+     * @param after      The keyset cursor of the last course shown; when present (even empty) on an unfiltered
+     *                   listing, keyset pagination is used instead of page numbers. The cursor only leads
+     *                   forward, so keyset pages link to the next and the first page but not the previous one.
+     * @return The name of the view to display the list of courses, or null if the client's copy is current.
+     * @throws ResponseStatusException With 400 Bad Request if the cursor is malformed or was issued for another sort.
      */
     @GetMapping("/courses")
     public String listCourses(Model model,
+                              ServletWebRequest request,
                               @RequestParam(defaultValue = "0") int page,
                               @RequestParam(defaultValue = "courseName") String sortField,
                               @RequestParam(defaultValue = "asc") String sortOrder,
                               @RequestParam(required = false) String courseName,
-                              @RequestParam(required = false, name = "courseDepartment") String department) {
+                              @RequestParam(required = false, name = "courseDepartment") String department,
+                              @RequestParam(required = false) String after) {
+        if (notModified(request)) {
+            return null;
+        }
+        // Keyset mode only applies to the unfiltered listing, where deep pages are the problem
+        if (after != null && !StringUtils.hasText(courseName) && !StringUtils.hasText(department)) {
+            Sort sort = Sort.by(Sort.Direction.fromString(sortOrder), sortField);
+            Window<Course> coursesWindow = scroll(() -> crService.retrieveAllCoursesAfter(after, sort, 5));
+            List<String> departments = crService.retrieveAllDepartments();
+            model.addAttribute("courses", coursesWindow.getContent());
+            model.addAttribute("currentPage", 0);
+            model.addAttribute("totalPages", 0);
+            model.addAttribute("nextCursor", KeysetCursor.next(coursesWindow, sort));
+            model.addAttribute("keyset", true);
+            model.addAttribute("sortField", sortField);
+            model.addAttribute("sortOrder", sortOrder);
+            model.addAttribute("courseName", courseName);
+            model.addAttribute("department", department);
+            model.addAttribute("departments", departments);
+            return "courses";
+        }
         Page<Course> coursesPage;
 
         if (StringUtils.hasText(courseName) && StringUtils.hasText(department)) {
@@ -137,8 +174,7 @@ public class Controller {
             coursesPage = crService.retrieveAllCoursesPaginated(PageRequest.of(page, 5, Sort.by(Sort.Direction.fromString(sortOrder), sortField)));
         }
 
-        List<Course> allCourses = crService.retrieveAllCourses();
-        List<String> departments = allCourses.stream().map(Course::getDepartment).distinct().collect(Collectors.toList());
+        List<String> departments = crService.retrieveAllDepartments();
 
         model.addAttribute("courses", coursesPage.getContent());
         model.addAttribute("currentPage", page);
@@ -161,9 +197,8 @@ public class Controller {
     @GetMapping("/students/new")
     public String createStudent(Model model) {
         Student student = new Student();
-        List<Course> courses = crService.retrieveAllCourses();
         model.addAttribute("student", student);
-        model.addAttribute("courses", courses);
+        courseOptionFragments.addById(model, Set.of());
         return "new_student";
     }
 
@@ -190,9 +225,7 @@ public class Controller {
     @PostMapping("/students")
     public String saveStudent(@ModelAttribute("student") Student student,
                               @RequestParam("courseIds") List<Long> courseIds) {
-        Set<Course> courses = courseIds.stream()
-                .map(id -> crService.retrieveCourseById(id))
-                .collect(Collectors.toSet());
+        Set<Course> courses = crService.retrieveCoursesByIds(courseIds);
 
         Student existingStudent = stdService.findStudentByDetails(student);
         if (existingStudent != null) {
@@ -235,9 +268,8 @@ public class Controller {
     @GetMapping("/students/update/{id}")
     public String updateStudentForm(@PathVariable Long id, Model model) {
         Student student = stdService.retrieveStudentById(id);
-        List<Course> courses = crService.retrieveAllCourses();
         model.addAttribute("student", student);
-        model.addAttribute("courses", courses);
+        courseOptionFragments.addById(model, student.getCourses().stream().map(Course::getId).toList());
         return "update_student";
     }
 
@@ -272,9 +304,7 @@ public class Controller {
             existingStudent.setFirstName(student.getFirstName());
             existingStudent.setLastName(student.getLastName());
 
-            Set<Course> courses = courseIds.stream()
-                    .map(crService::retrieveCourseById)
-                    .collect(Collectors.toSet());
+            Set<Course> courses = crService.retrieveCoursesByIds(courseIds);
             existingStudent.setCourses(courses);
 
             stdService.updateStudent(existingStudent);
@@ -293,10 +323,8 @@ public class Controller {
     public String updateCourse(@PathVariable Long id,
                                @ModelAttribute("course") Course course) {
         Course existingCourse = crService.retrieveCourseById(id);
-        if (existingCourse != null) {
-            existingCourse.setCourseName(course.getCourseName());
-            crService.updateCourse(existingCourse);
-        }
+        existingCourse.setCourseName(course.getCourseName());
+        crService.updateCourse(existingCourse);
         return "redirect:/courses";
     }
 
@@ -320,7 +348,6 @@ public class Controller {
      */
     @GetMapping("/courses/{id}")
     public String deleteCourse(@PathVariable Long id) {
-        crService.updateStudentsWhenCourseDeleted(id);
         crService.deleteCourseById(id);
         return "redirect:/courses";
     }
@@ -338,4 +365,32 @@ public class Controller {
         model.addAttribute("students", students);
         return "students";
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks the entity tag of a listing against the {@code If-None-Match} header of the request,
+     * answering with 304 Not Modified when they match. Clients are asked to revalidate the listing on every use.
+     *
+     * @param request The current request.
+     * @return Whether the client's copy of the listing is current, in which case nothing is rendered.
+     */
+    private boolean notModified(ServletWebRequest request) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return request.checkNotModified(dataVersionService.etag(request.getRequest().getRequestURI(), request.getParameterMap()));
+    }
+
+    /**
+     * Reads a keyset window, rejecting a malformed cursor as a bad request like the JSON API does.
+     *
+     * @param query Reads the window after the cursor.
+     * @return The window read.
+     * @throws ResponseStatusException With 400 Bad Request if the cursor is malformed or was issued for another sort.
+     */
+    private static <T> Window<T> scroll(Supplier<Window<T>> query) {
+        try {
+            return query.get();
+        } catch (IllegalArgumentException e) {
+            // Thrown by KeysetCursor for a malformed cursor or one issued for another sort field
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+}
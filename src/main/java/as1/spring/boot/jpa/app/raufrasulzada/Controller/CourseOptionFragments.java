@@ -0,0 +1,127 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Controller;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CourseOption;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CoursesChangedEvent;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataVersionService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.CourseOptionsCacheConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.ui.Model;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Provides the course dropdowns of the student pages.
+ * <p>
+ * The options are read once per catalog version and kept in the {@value CourseOptionsCacheConfig#COURSE_OPTIONS_CACHE}
+ * cache, together with the dropdowns rendered from them by the fragments of {@code course_options.html}, so a page
+ * without selected courses only inserts the cached HTML. Dropdowns with selected courses are rendered from the cached
+ * options for each page. The version is read before the courses, so a course write committed meanwhile can only make
+ * the cached options newer than their version, never older. With {@code course-options.async=true} the pages render
+ * no options at all; a script fills the dropdowns from {@code /api/courses/options}, whose versioned URL lets browsers
+ * cache the list. The catalog version is held in memory, so a cached dropdown is inserted without any query, and
+ * counted in the database, so every instance serves the same URL. Every committed course write clears the cache,
+ * so the dropdowns of older versions do not take up its few entries.
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseOptionFragments {
+
+    static final String BY_ID = "byId";
+
+    static final String BY_NAME = "byName";
+
+    private final CrService crService;
+
+    private final DataVersionService dataVersionService;
+
+    private final CacheManager cacheManager;
+
+    private final ITemplateEngine templateEngine;
+
+    @Value("${course-options.async:false}")
+    private boolean async;
+
+    /**
+     * Returns the current catalog version, to be read before the options of that version.
+     *
+     * @return The current catalog version, read from memory.
+     */
+    public long version() {
+        return dataVersionService.catalogVersion();
+    }
+
+    /**
+     * Returns the course options of a catalog version.
+     *
+     * @param version The catalog version, as returned by {@link #version()} before this call.
+     * @return The course options, ordered by ID.
+     */
+    public List<CourseOption> options(long version) {
+        return cache().get(new SimpleKey("options", version), crService::retrieveCourseOptions);
+    }
+
+    /**
+     * Adds the course dropdown of the student filter, whose options have course names as values.
+     *
+     * @param model The model of the page.
+     */
+    public void addByName(Model model) {
+        addTo(model, BY_NAME, Set.of());
+    }
+
+    /**
+     * Adds the course dropdown of the student forms, whose options have course IDs as values.
+     *
+     * @param model       The model of the page.
+     * @param selectedIds The IDs of the courses to select.
+     */
+    public void addById(Model model, Collection<Long> selectedIds) {
+        addTo(model, BY_ID, selectedIds);
+    }
+
+    /**
+     * Clears the cached options and dropdowns once a course write has been committed.
+     *
+     * @param event The event of the write.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoursesChanged(CoursesChangedEvent event) {
+        cache().clear();
+    }
+
+    private void addTo(Model model, String fragment, Collection<Long> selectedIds) {
+        long version = version();
+        if (async) {
+            model.addAttribute("courseOptionsVersion", version);
+            return;
+        }
+        // Read outside the loader below: Caffeine does not allow a loader to access the cache it is loading into
+        List<CourseOption> options = options(version);
+        String html = selectedIds.isEmpty()
+                ? cache().get(new SimpleKey(fragment, version), () -> render(fragment, options, Set.of()))
+                : render(fragment, options, selectedIds);
+        model.addAttribute("courseOptions", html);
+    }
+
+    private String render(String fragment, List<CourseOption> options, Collection<Long> selectedIds) {
+        return templateEngine.process("course_options", Set.of(fragment),
+                new Context(Locale.ROOT, Map.of("options", options, "selectedIds", selectedIds)));
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CourseOptionsCacheConfig.COURSE_OPTIONS_CACHE);
+    }
+}
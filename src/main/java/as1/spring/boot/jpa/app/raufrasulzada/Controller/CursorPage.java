@@ -0,0 +1,12 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Controller;
+
+import java.util.List;
+
+/**
+ * A window of results returned by the JSON API.
+ *
+ * @param content    The results of the window.
+ * @param nextCursor The cursor to pass as {@code after} to get the next window, or null on the last window.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+}
@@ -0,0 +1,67 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Controller;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+/**
+ * Controller class responsible for streaming exports of students and courses.
+ * <p>
+ * Records are written straight to the response as they are read from the database.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /**
+     * Mapping for exporting all students with their courses.
+     *
+     * @param format   The format to export: csv or ndjson.
+     * @param response The response to stream the export to.
+     * @throws IOException If the response cannot be written.
+     */
+    @GetMapping("/students/export")
+    public void exportStudents(@RequestParam(defaultValue = "csv") String format,
+                               HttpServletResponse response) throws IOException {
+        DataFormat exportFormat = prepareResponse(format, "students", response);
+        exportService.exportStudents(exportFormat, response.getOutputStream());
+    }
+
+    /**
+     * Mapping for exporting all courses.
+     *
+     * @param format   The format to export: csv or ndjson.
+     * @param response The response to stream the export to.
+     * @throws IOException If the response cannot be written.
+     */
+    @GetMapping("/courses/export")
+    public void exportCourses(@RequestParam(defaultValue = "csv") String format,
+                              HttpServletResponse response) throws IOException {
+        DataFormat exportFormat = prepareResponse(format, "courses", response);
+        exportService.exportCourses(exportFormat, response.getOutputStream());
+    }
+
+    private DataFormat prepareResponse(String format, String name, HttpServletResponse response) {
+        DataFormat exportFormat;
+        try {
+            exportFormat = DataFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format", e);
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + exportFormat.getExtension() + "\"");
+        return exportFormat;
+    }
+}
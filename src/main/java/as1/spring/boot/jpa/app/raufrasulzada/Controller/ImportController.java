@@ -0,0 +1,51 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Controller;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportKind;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportReport;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+
+/**
+ * Controller class responsible for bulk imports over HTTP.
+ * <p>
+ * The request body is streamed straight into the import, so files of any size can be posted
+ * without being buffered in memory first.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ImportController {
+
+    private final ImportService importService;
+
+    /**
+     * Mapping for importing students, courses or enrollments.
+     *
+     * @param kind   The kind of records to import: students, courses or enrollments.
+     * @param format The format of the request body: csv or ndjson.
+     * @param body   The request body.
+     * @return A report with throughput and per-row errors.
+     */
+    @PostMapping("/import/{kind}")
+    public ImportReport importRecords(@PathVariable String kind,
+                                      @RequestParam(defaultValue = "csv") String format,
+                                      InputStream body) {
+        ImportKind importKind;
+        DataFormat importFormat;
+        try {
+            importKind = ImportKind.fromName(kind);
+            importFormat = DataFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown import kind or format", e);
+        }
+        return importService.importRecords(importKind, importFormat, body);
+    }
+}
@@ -0,0 +1,103 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Controller;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlBudget;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlStatementCounter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Checks the statements counted by {@link StatementBudgetFilter} against the budget of the route while the
+ * response can still be changed, so that a violation fails the request when {@code sql-budget.fail-on-violation}
+ * is set instead of surfacing after the client already got its answer.
+ * <p>
+ * Views are checked in {@link #postHandle}, before they render; with open-in-view turned off, rendering cannot
+ * load anything. Response bodies are checked in {@link #beforeBodyWrite}, since message converters flush and
+ * so commit the response before {@code postHandle} runs. Requests that reach neither, such as failed or
+ * streamed ones, are checked by the filter once they complete, which can only log.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class StatementBudgetCheck implements HandlerInterceptor, ResponseBodyAdvice<Object>, WebMvcConfigurer {
+
+    private final SqlBudget sqlBudget;
+
+    /**
+     * Registers the check as a handler interceptor.
+     *
+     * @param registry The registry of handler interceptors.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    /**
+     * Checks the statements of a handler before its view renders.
+     *
+     * @param request      The current request.
+     * @param response     The current response.
+     * @param handler      The handler that ran.
+     * @param modelAndView The view to render, or null if the handler answered the request itself.
+     */
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        check(request);
+    }
+
+    /**
+     * Applies to every response body.
+     *
+     * @param returnType    The return type of the handler.
+     * @param converterType The converter about to write the body.
+     * @return Always true.
+     */
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    /**
+     * Checks the statements of a handler before its response body is written.
+     *
+     * @param body                  The body to write.
+     * @param returnType            The return type of the handler.
+     * @param selectedContentType   The content type of the body.
+     * @param selectedConverterType The converter about to write the body.
+     * @param request               The current request.
+     * @param response              The current response.
+     * @return The body, unchanged.
+     */
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            check(servletRequest.getServletRequest());
+        }
+        return body;
+    }
+
+    private void check(HttpServletRequest request) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || request.getAttribute(StatementBudgetFilter.CHECKED_ATTRIBUTE) != null
+                || !(request.getAttribute(StatementBudgetFilter.SCOPE_ATTRIBUTE) instanceof SqlStatementCounter.Scope scope)) {
+            return;
+        }
+        request.setAttribute(StatementBudgetFilter.CHECKED_ATTRIBUTE, Boolean.TRUE);
+        sqlBudget.check(scope, sqlBudget.forRoute(StatementBudgetFilter.route(request)));
+    }
+}
@@ -0,0 +1,82 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Controller;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlBudget;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements of each request, including those of lazy loads while the view renders,
+ * and records them as the {@value #STATEMENTS_SUMMARY} distribution summary tagged with the route and HTTP method.
+ * <p>
+ * {@link StatementBudgetCheck} checks them against the budget of the route before the response is committed;
+ * requests it did not check, such as failed or streamed ones, are checked here once they complete, which
+ * can only log a violation.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_SUMMARY = "http.server.requests.statements";
+
+    static final String SCOPE_ATTRIBUTE = StatementBudgetFilter.class.getName() + ".scope";
+
+    static final String CHECKED_ATTRIBUTE = StatementBudgetFilter.class.getName() + ".checked";
+
+    private final SqlStatementCounter statementCounter;
+
+    private final SqlBudget sqlBudget;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Counts the statements of the request and records them once it completes.
+     *
+     * @param request     The current request.
+     * @param response    The current response.
+     * @param filterChain The rest of the filter chain.
+     * @throws ServletException If the rest of the chain fails.
+     * @throws IOException      If the rest of the chain fails.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Scope scope = statementCounter.start(request.getMethod() + " " + request.getRequestURI());
+        request.setAttribute(SCOPE_ATTRIBUTE, scope);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statementCounter.stop(scope);
+            DistributionSummary.builder(STATEMENTS_SUMMARY)
+                    .baseUnit("statements")
+                    .tag("uri", route(request))
+                    .tag("method", request.getMethod())
+                    .register(meterRegistry)
+                    .record(scope.getStatements());
+        }
+        if (request.getAttribute(CHECKED_ATTRIBUTE) == null) {
+            sqlBudget.warn(scope, sqlBudget.forRoute(route(request)));
+        }
+    }
+
+    /**
+     * Finds the route pattern a request matched.
+     *
+     * @param request The request.
+     * @return The route pattern, or {@code UNKNOWN} if no handler matched.
+     */
+    static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
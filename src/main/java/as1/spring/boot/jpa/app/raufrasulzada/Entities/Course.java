@@ -2,20 +2,28 @@ package as1.spring.boot.jpa.app.raufrasulzada.Entities;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Represents a course entity in the system.
+ * <p>
+ * Courses are read far more often than they change, so they are kept in the {@code course} region
+ * of the second-level cache.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "course")
 @Data
 @Table(name = "courses")
 
 public class Course {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "course_seq")
+    @SequenceGenerator(name = "course_seq", sequenceName = "courses_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "coursename", nullable = false, unique = true)
@@ -52,6 +60,20 @@ public class Course {
         this.department = department;
     }
 
+    /**
+     * Override equals method so that cached and managed instances of the same course compare equal.
+     *
+     * @param o The object to compare with.
+     * @return True if the other object is a course with the same ID.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Course other && id != null && id.equals(other.getId());
+    }
+
      /**
      * Override hashCode method to ensure consistency in collections.
      *
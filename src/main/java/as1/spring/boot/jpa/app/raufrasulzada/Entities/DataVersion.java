@@ -0,0 +1,51 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Represents the version of one kind of stored data, such as the students or the courses.
+ * <p>
+ * Writes increase the version in their own transaction, so every instance of the application sharing the
+ * database sees the same version once the write is committed. The row is never cached.
+ */
+@Entity
+@Data
+@Table(name = "data_versions")
+public class DataVersion {
+
+    /**
+     * The version of the students and their enrollments.
+     */
+    public static final String STUDENTS = "students";
+
+    /**
+     * The version of the course catalog.
+     */
+    public static final String COURSES = "courses";
+
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * Default constructor for DataVersion.
+     */
+    public DataVersion() {
+
+    }
+
+    /**
+     * Constructor for DataVersion with parameters.
+     *
+     * @param name    The kind of data the version belongs to.
+     * @param version The initial version.
+     */
+    public DataVersion(String name, long version) {
+        this.name = name;
+        this.version = version;
+    }
+}
@@ -2,6 +2,9 @@ package as1.spring.boot.jpa.app.raufrasulzada.Entities;
 
 import lombok.Data;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -14,7 +17,8 @@ import java.util.Set;
 @Table(name = "students")
 public class Student {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "students_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "firstname", nullable = false)
@@ -29,8 +33,12 @@ public class Student {
      * JoinTable defines the mapping table for the many-to-many relationship.
      * joinColumns defines the column in the mapping table that references the owning entity (Student).
      * inverseJoinColumns defines the column in the mapping table that references the inverse entity (Course).
+     * The course IDs of each student are kept in the {@code student-courses} region of the second-level cache;
+     * sets that are not cached are loaded for up to 100 students of the persistence context at once.
      */
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "student-courses")
+    @BatchSize(size = 100)
     @JoinTable(
             name = "studentcourse",
             joinColumns = @JoinColumn(name = "studentid"),
@@ -0,0 +1,71 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the synthetic dataset generator, bound from the {@code generator.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "generator")
+public class GeneratorProperties {
+
+    /**
+     * How often each course is picked for an enrollment.
+     */
+    public enum Distribution {
+        /**
+         * Every course is equally popular.
+         */
+        UNIFORM,
+        /**
+         * The k-th most popular course is picked with a probability proportional to 1 / k^exponent.
+         */
+        ZIPF
+    }
+
+    /**
+     * The number of students to generate.
+     */
+    private int students = 100_000;
+
+    /**
+     * The number of courses to generate.
+     */
+    private int courses = 1_000;
+
+    /**
+     * The number of departments the courses are spread over.
+     */
+    private int departments = 20;
+
+    /**
+     * The average number of courses a student is enrolled in.
+     */
+    private int enrollmentsPerStudent = 5;
+
+    /**
+     * The popularity distribution of the courses.
+     */
+    private Distribution distribution = Distribution.ZIPF;
+
+    /**
+     * The exponent of the Zipf distribution; higher values concentrate enrollments in fewer courses.
+     */
+    private double zipfExponent = 1.0;
+
+    /**
+     * The seed of the random generator. The same seed and settings always produce the same dataset.
+     */
+    private long seed = 42;
+
+    /**
+     * The number of students inserted per batch; each batch is one unit of parallel work.
+     */
+    private int batchSize = 10_000;
+
+    /**
+     * The number of batches inserted in parallel.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,107 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportKind;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportReport;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line import mode.
+ * <p>
+ * When started with {@code --import.courses=<file>}, {@code --import.students=<file>} and/or
+ * {@code --import.enrollments=<file>}, the files are imported in that order and a report is logged
+ * for each of them; {@link RaufRasulzadaApplication#main} then exits with the code of this generator,
+ * 1 if any row was rejected. The format is taken from the file extension (.csv, or .ndjson/.jsonl/.json).
+ * In this mode the application starts without a web server and without the sample data.
+ * Without these options the application starts normally.
+ * <p>
+ * Runs after the other runners, so the imported rows can refer to courses a synthetic dataset has generated.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ImportCommandLineRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final String OPTION_PREFIX = "--import.";
+
+    private static final List<ImportKind> KINDS = List.of(ImportKind.COURSES, ImportKind.STUDENTS, ImportKind.ENROLLMENTS);
+
+    private final ImportService importService;
+
+    @Getter
+    private boolean importRequested;
+
+    private long failedRows;
+
+    /**
+     * Checks whether the command line names files to import.
+     *
+     * @param args The command-line arguments.
+     * @return Whether any of them is an import option.
+     */
+    public static boolean requestsImport(String... args) {
+        for (String arg : args) {
+            for (ImportKind kind : KINDS) {
+                if (arg.startsWith(OPTION_PREFIX + optionSuffix(kind) + "=")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs the imports named on the command line, if any.
+     *
+     * @param args The application arguments.
+     * @throws Exception If a file cannot be read.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        for (ImportKind kind : KINDS) {
+            String option = "import." + optionSuffix(kind);
+            if (!args.containsOption(option)) {
+                continue;
+            }
+            importRequested = true;
+            for (String file : args.getOptionValues(option)) {
+                try (InputStream input = Files.newInputStream(Path.of(file))) {
+                    ImportReport report = importService.importRecords(kind, DataFormat.fromFileName(file), input);
+                    log.info("{}: {}", file, report);
+                    report.getErrors().forEach(error -> log.warn("{} line {}: {}", file, error.line(), error.message()));
+                    failedRows += report.getFailedRows();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the exit code of the imports.
+     *
+     * @return 1 if any row of the imports was rejected, otherwise 0.
+     */
+    @Override
+    public int getExitCode() {
+        return failedRows > 0 ? 1 : 0;
+    }
+
+    private static String optionSuffix(ImportKind kind) {
+        return kind.name().toLowerCase(Locale.ROOT);
+    }
+}
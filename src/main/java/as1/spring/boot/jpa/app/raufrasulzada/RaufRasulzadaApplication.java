@@ -5,18 +5,50 @@ import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
 import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
 import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * The main class responsible for bootstrapping the Spring Boot application.
  */
 @SpringBootApplication
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@EnableScheduling
 public class RaufRasulzadaApplication implements CommandLineRunner {
 
+	/**
+	 * Starts the application, or runs the imports named on the command line and exits
+	 * with the code of {@link ImportCommandLineRunner}.
+	 *
+	 * @param args Command-line arguments.
+	 */
 	public static void main(String[] args) {
-		SpringApplication.run(RaufRasulzadaApplication.class, args);
+		ConfigurableApplicationContext context = application(args).run(args);
+		if (ImportCommandLineRunner.requestsImport(args)) {
+			System.exit(SpringApplication.exit(context));
+		}
+	}
+
+	/**
+	 * Creates the application for the command line, without a web server when it only imports files.
+	 *
+	 * @param args Command-line arguments.
+	 * @return The application to run.
+	 */
+	static SpringApplication application(String... args) {
+		SpringApplication application = new SpringApplication(RaufRasulzadaApplication.class);
+		if (ImportCommandLineRunner.requestsImport(args)) {
+			application.setWebApplicationType(WebApplicationType.NONE);
+		}
+		return application;
 	}
 
 	@Autowired
@@ -24,16 +56,29 @@ public class RaufRasulzadaApplication implements CommandLineRunner {
 
 	@Autowired
 	private CourseRepo courseRepo;
+
+	@Autowired
+	private Environment environment;
+
+	@Value("${sample-data.enabled:true}")
+	private boolean sampleData;
 	
 	/**
      * This method is executed after the Spring Boot application context is loaded.
-     * It is responsible for inserting sample data into the database.
+     * It is responsible for inserting sample data into the database,
+     * unless a synthetic dataset is generated instead (see {@link SyntheticDataGenerator}),
+     * files are imported from the command line (see {@link ImportCommandLineRunner})
+     * or {@code sample-data.enabled} is false, as in the fast-startup profile.
      *
      * @param args Command-line arguments.
      * @throws Exception An exception that might occur during the execution.
      */
 	@Override
 	public void run(String... args) throws Exception {
+		if (!sampleData || environment.matchesProfiles(SyntheticDataGenerator.PROFILE)
+				|| ImportCommandLineRunner.requestsImport(args)) {
+			return;
+		}
 		Student std1 = new Student("First", "StudentFirst");
 		studentRepo.save(std1);
 		Course course1 = new Course("Calculus I", "Math");
@@ -0,0 +1,134 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits how many connections of a data source are in use at the same time.
+ * <p>
+ * With request handling on virtual threads there is no longer a thread pool bounding the number of requests
+ * that reach the database at once. Sized to the connection pool, this makes surplus requests wait on a
+ * fair semaphore, which parks a virtual thread cheaply, instead of piling up in the pool until its
+ * connection timeout expires. A permit is held from {@code getConnection()} until the connection is closed.
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+
+    private final Duration acquireTimeout;
+
+    /**
+     * Constructor for ConcurrencyLimitingDataSource.
+     *
+     * @param targetDataSource The data source to limit.
+     * @param permits          The number of connections that may be in use at the same time.
+     * @param acquireTimeout   How long to wait for a connection before giving up.
+     */
+    public ConcurrencyLimitingDataSource(DataSource targetDataSource, int permits, Duration acquireTimeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Waits for a permit, then gets a connection from the target data source.
+     *
+     * @return The connection, which returns the permit when closed.
+     * @throws SQLException If no permit became available within the timeout, or the target failed.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return limited(getTargetDataSource()::getConnection);
+    }
+
+    /**
+     * Waits for a permit, then gets a connection for a user from the target data source.
+     *
+     * @param username The database user.
+     * @param password The password of the user.
+     * @return The connection, which returns the permit when closed.
+     * @throws SQLException If no permit became available within the timeout, or the target failed.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return limited(() -> getTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * @return The number of connections that can still be handed out without waiting.
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * @return An estimate of the number of threads waiting for a connection.
+     */
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "No database connection became available within " + acquireTimeout.toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    private Connection limited(ConnectionSupplier target) throws SQLException {
+        Connection connection;
+        try {
+            connection = target.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
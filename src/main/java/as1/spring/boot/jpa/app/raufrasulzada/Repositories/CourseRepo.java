@@ -1,50 +1,145 @@
 package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
 
 import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for managing Course entities.
  */
 @Repository
-public interface CourseRepo extends JpaRepository<Course, Long> {
+public interface CourseRepo extends JpaRepository<Course, Long>, CourseRepoCustom {
+
+    /**
+     * Projection of the columns of a course, used for exports.
+     */
+    interface CourseRow {
+        Long getId();
+
+        String getCourseName();
+
+        String getDepartment();
+    }
+
+    /**
+     * Custom query to retrieve the columns of every course without loading the entities.
+     * @return A list of course rows.
+     */
+    @Query("SELECT c.id AS id, c.courseName AS courseName, c.department AS department FROM Course c")
+    List<CourseRow> findAllCourseRows();
+
+    /**
+     * Custom query to retrieve the ID and name of every course ordered by ID, for the course dropdowns.
+     * @return A list of course rows, without departments.
+     */
+    @Query("SELECT c.id AS id, c.courseName AS courseName FROM Course c ORDER BY c.id")
+    List<CourseRow> findCourseOptionRows();
+
+    /**
+     * Custom query to stream every course ordered by ID, selecting only scalar columns.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     * @return A stream of course rows.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id AS id, c.courseName AS courseName, c.department AS department FROM Course c ORDER BY c.id")
+    Stream<CourseRow> streamCourses();
     /**
      * Custom query to find a course by its name.
+     * The result is kept in the {@code course-by-name} region of the query cache until the courses table changes.
      * @param courseName The name of the course to search for.
      * @return The Course object with the specified name, if found.
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "course-by-name")
+    })
     Course findCourseByCourseName(String courseName);
 
     /**
-     * Custom query to retrieve courses by course name using pagination.
-     * @param courseName The name of the course (or part of it) to search for.
+     * Custom query to retrieve the distinct departments of all courses without loading the courses themselves.
+     * @return An alphabetically sorted list of department names.
+     */
+    @Query("SELECT DISTINCT c.department FROM Course c ORDER BY c.department")
+    List<String> findDistinctDepartments();
+
+    /**
+     * Custom query to scroll through all courses using keyset pagination.
+     * @param position The keyset position after which to continue.
+     * @param sort The sort order, which must end with the ID as a tiebreaker.
+     * @param limit The maximum number of courses to return.
+     * @return A window of Course objects following the specified position.
+     */
+    Window<Course> findCoursesBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Custom query to retrieve a slice of all courses, without counting them.
      * @param pageable Pagination information.
-     * @return A page of Course objects matching the specified course name pattern.
+     * @return A slice of Course objects.
      */
-    @Query("SELECT c FROM Course c WHERE c.courseName LIKE %:courseName%")
-    Page<Course> retrieveCoursesByCourseName(@Param("courseName") String courseName, Pageable pageable);
+    Slice<Course> findCoursesBy(Pageable pageable);
 
     /**
-     * Custom query to retrieve courses by department using pagination.
+     * Custom query to retrieve courses by ID using pagination, without counting them.
+     * @param ids The IDs of the courses to retrieve.
+     * @param pageable Pagination information.
+     * @return A slice of Course objects with the specified IDs.
+     */
+    Slice<Course> findByIdIn(Collection<Long> ids, Pageable pageable);
+
+    /**
+     * Custom query to count the courses with the given IDs.
+     * @param ids The IDs of the courses to count.
+     * @return The number of existing courses among the IDs.
+     */
+    long countByIdIn(Collection<Long> ids);
+
+    /**
+     * Custom query to retrieve courses by department using pagination, without counting them.
      * @param department The department of the courses to retrieve.
      * @param pageable Pagination information.
-     * @return A page of Course objects belonging to the specified department.
+     * @return A slice of Course objects belonging to the specified department.
      */
     @Query(value = "SELECT * FROM courses WHERE (:department IS NULL OR department = :department)", nativeQuery = true)
-    Page<Course> retrieveCoursesByDepartment(@Param("department") String department, Pageable pageable);
+    Slice<Course> retrieveCoursesByDepartment(@Param("department") String department, Pageable pageable);
+
+    /**
+     * Custom query to count the courses of a department.
+     * @param department The department of the courses to count, or null for every course.
+     * @return The number of courses belonging to the specified department.
+     */
+    @Query("SELECT COUNT(c) FROM Course c WHERE (:department IS NULL OR c.department = :department)")
+    long countCoursesByDepartment(@Param("department") String department);
 
     /**
-     * Custom query to retrieve courses by both course name and department using pagination.
+     * Custom query to retrieve courses by both course name and department using pagination, without counting them.
      * @param courseName The name of the course to search for.
      * @param department The department of the course to search for.
      * @param pageable Pagination information.
-     * @return A page of Course objects matching the specified name and department.
+     * @return A slice of Course objects matching the specified name and department.
      */
     @Query(value = "SELECT * FROM courses WHERE coursename = :courseName AND department = :department", nativeQuery = true)
-    Page<Course> retrieveCoursesByCourseNameAndDepartment(@Param("courseName") String courseName, @Param("department") String department, Pageable pageable);
-}
\ No newline at end of file
+    Slice<Course> retrieveCoursesByCourseNameAndDepartment(@Param("courseName") String courseName, @Param("department") String department, Pageable pageable);
+
+    /**
+     * Custom query to count the courses with the given name and department.
+     * @param courseName The name of the course to count.
+     * @param department The department of the course to count.
+     * @return The number of courses matching the specified name and department.
+     */
+    long countByCourseNameAndDepartment(String courseName, String department);
+}
@@ -0,0 +1,36 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom queries of {@link CourseRepo} that Spring Data cannot derive.
+ */
+public interface CourseRepoCustom {
+
+    /**
+     * Custom query to scroll through the courses matching a specification, selecting only some columns.
+     * @param specification The filters to apply.
+     * @param position The keyset position after which to continue.
+     * @param sort The sort order, which must end with the ID as a tiebreaker.
+     * @param limit The maximum number of courses to return.
+     * @param attributes The attributes to select; the attributes of the sort are always selected.
+     * @return A window of tuples whose elements are aliased with the attribute names.
+     */
+    Window<Tuple> scrollColumns(Specification<Course> specification, ScrollPosition position, Sort sort, int limit, String... attributes);
+
+    /**
+     * Custom query to load courses by ID, in the order of the IDs.
+     * Courses held by the persistence context or the second-level cache are not read again,
+     * the others are read with IN queries. IDs of courses that no longer exist are skipped.
+     * @param ids The IDs of the courses to load.
+     * @return A list of Course objects in the order of the IDs.
+     */
+    List<Course> findAllInOrder(List<Long> ids);
+}
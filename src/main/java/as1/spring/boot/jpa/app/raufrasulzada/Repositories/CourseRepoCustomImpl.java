@@ -0,0 +1,56 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.hibernate.Session;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Implementation of the {@link CourseRepoCustom} queries, picked up by Spring Data as a fragment of {@link CourseRepo}.
+ */
+public class CourseRepoCustomImpl implements CourseRepoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Scrolls through the courses matching a specification, selecting only the given columns.
+     *
+     * @param specification The filters to apply.
+     * @param position      The keyset position after which to continue.
+     * @param sort          The sort order, ending with the ID.
+     * @param limit         The maximum number of courses to return.
+     * @param attributes    The attributes to select.
+     * @return A window of tuples aliased with the attribute names.
+     */
+    @Override
+    public Window<Tuple> scrollColumns(Specification<Course> specification, ScrollPosition position, Sort sort, int limit, String... attributes) {
+        return KeysetQueries.scroll(entityManager, Course.class, specification, position, sort, limit, attributes);
+    }
+
+    /**
+     * Loads courses by ID through Hibernate's multi-load, which keeps the order of the IDs.
+     * The persistence context and the second-level cache are only consulted when asked to.
+     *
+     * @param ids The IDs of the courses to load.
+     * @return The courses in the order of the IDs, without the ones that no longer exist.
+     */
+    @Override
+    public List<Course> findAllInOrder(List<Long> ids) {
+        Session session = entityManager.unwrap(Session.class);
+        return session.byMultipleIds(Course.class)
+                .enableSessionCheck(true)
+                .with(session.getCacheMode())
+                .multiLoad(ids).stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
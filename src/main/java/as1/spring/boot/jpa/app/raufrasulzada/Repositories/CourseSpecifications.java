@@ -0,0 +1,34 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Composable filters for querying Course entities through {@link CourseRepo}.
+ */
+public final class CourseSpecifications {
+
+    private CourseSpecifications() {
+
+    }
+
+    /**
+     * Matches courses of the given department.
+     * @param department The department to match exactly.
+     * @return The specification.
+     */
+    public static Specification<Course> hasDepartment(String department) {
+        return (root, query, cb) -> cb.equal(root.get("department"), department);
+    }
+
+    /**
+     * Matches the courses with the given IDs.
+     * @param courseIds The IDs of the courses; an empty collection matches no course.
+     * @return The specification.
+     */
+    public static Specification<Course> hasIdIn(Collection<Long> courseIds) {
+        return (root, query, cb) -> courseIds.isEmpty() ? cb.disjunction() : root.get("id").in(courseIds);
+    }
+}
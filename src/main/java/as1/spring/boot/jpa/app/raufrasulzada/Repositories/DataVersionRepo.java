@@ -0,0 +1,37 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.DataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository interface for managing DataVersion entities.
+ */
+@Repository
+public interface DataVersionRepo extends JpaRepository<DataVersion, String> {
+
+    /**
+     * Custom query to read every version in a read-write transaction, so that with a read replica
+     * the versions still come from the primary, which a write has just increased.
+     * Called outside any transaction; inside one it joins it and reads wherever that one does.
+     * @return The versions of all kinds of data.
+     */
+    @Transactional
+    @Query("SELECT v FROM DataVersion v")
+    List<DataVersion> readFromPrimary();
+
+    /**
+     * Custom query to increase a version by one and return the new version with the same statement,
+     * meant to run in the transaction of the write it counts.
+     * @param name The kind of data that changed.
+     * @return The increased version, or null if the version does not exist.
+     */
+    @Transactional
+    @Query(value = "SELECT version FROM FINAL TABLE (UPDATE data_versions SET version = version + 1 WHERE name = :name)", nativeQuery = true)
+    Long increment(@Param("name") String name);
+}
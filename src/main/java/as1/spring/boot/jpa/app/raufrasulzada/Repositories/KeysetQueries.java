@@ -0,0 +1,125 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyset queries that select a few columns of an entity instead of the entity itself.
+ * <p>
+ * The rows are tuples whose elements are aliased with the attribute names, and the attributes of the sort
+ * are always selected, so the position of every row can be taken from the row itself.
+ */
+final class KeysetQueries {
+
+    private KeysetQueries() {
+
+    }
+
+    /**
+     * Reads the rows following a keyset position.
+     *
+     * @param entityManager The entity manager to query with.
+     * @param entityType    The entity to query.
+     * @param specification The filters to apply.
+     * @param position      The keyset position after which to continue, or an initial position.
+     * @param sort          The sort order, which must end with a unique attribute such as the ID.
+     * @param limit         The maximum number of rows to return.
+     * @param attributes    The attributes to select.
+     * @return A window of tuples, one row more is read to tell whether another window follows.
+     */
+    static <E> Window<Tuple> scroll(EntityManager entityManager, Class<E> entityType, Specification<E> specification,
+                                    ScrollPosition position, Sort sort, int limit, String... attributes) {
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.scrollsBackward()) {
+            throw new IllegalArgumentException("Only forward keyset positions are supported");
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(entityType);
+
+        Set<String> selected = new LinkedHashSet<>(List.of(attributes));
+        sort.forEach(order -> selected.add(order.getProperty()));
+        List<Selection<?>> selections = new ArrayList<>();
+        selected.forEach(attribute -> selections.add(root.get(attribute).alias(attribute)));
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = specification.toPredicate(root, query, cb);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (!keyset.isInitial()) {
+            predicates.add(after(cb, root, sort, keyset.getKeys()));
+        }
+        query.multiselect(selections).where(predicates.toArray(Predicate[]::new))
+                .orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(limit + 1).getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<Tuple> content = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(content, index -> ScrollPosition.forward(keysOf(content.get(index), sort)), hasNext);
+    }
+
+    /**
+     * Builds the seek predicate (a > x) OR (a = x AND b > y) OR ... for the orders of the sort.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder cb, Root<?> root, Sort sort, Map<String, ?> keys) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalSoFar = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<Comparable> path = root.get(order.getProperty());
+            if (!keys.containsKey(order.getProperty())) {
+                throw new IllegalArgumentException("Keyset position lacks a value for " + order.getProperty());
+            }
+            Comparable value = convert(keys.get(order.getProperty()), path.getJavaType());
+            Predicate beyond = order.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+            List<Predicate> alternative = new ArrayList<>(equalSoFar);
+            alternative.add(beyond);
+            alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            equalSoFar.add(cb.equal(path, value));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+
+    /**
+     * Converts a key decoded from a cursor, where every value is a string, to the type of its attribute.
+     */
+    @SuppressWarnings("rawtypes")
+    private static Comparable convert(Object value, Class<?> type) {
+        if (type.isInstance(value)) {
+            return (Comparable) value;
+        }
+        String text = String.valueOf(value);
+        if (type == Long.class || type == long.class) {
+            return Long.valueOf(text);
+        }
+        if (type == Integer.class || type == int.class) {
+            return Integer.valueOf(text);
+        }
+        return text;
+    }
+
+    private static Map<String, Object> keysOf(Tuple row, Sort sort) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        sort.forEach(order -> keys.put(order.getProperty(), row.get(order.getProperty())));
+        return keys;
+    }
+}
@@ -1,141 +1,101 @@
 package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
 
 import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing Student entities.
  */
 @Repository
-public interface StudentRepo extends JpaRepository<Student, Long> {
-
-     /**
-     * Custom query to find students by course name.
-     * @param courseName The name of the course to search for.
-     * @return A list of Student objects enrolled in the specified course.
-     */
-    List<Student> findByCourses_CourseName(String courseName);
+public interface StudentRepo extends JpaRepository<Student, Long>, JpaSpecificationExecutor<Student>, StudentRepoCustom {
 
     /**
-     * Custom query to find students by first name and last name.
-     * @param firstName The first name of the student to search for.
-     * @param lastName The last name of the student to search for.
-     * @return A list of Student objects matching the specified first and last names.
+     * Projection of one student together with one of their courses, used for exports.
+     * Students without courses appear once with a null course name.
      */
-    @Query("SELECT s FROM Student s WHERE s.firstName = ?1 AND s.lastName = ?2")
-    List<Student> findByFirstNameAndLastName(String firstName, String lastName);
- 
-    /**
-     * Custom query to find students by course ID.
-     * @param courseId The ID of the course.
-     * @return A list of Student objects enrolled in the specified course.
-     */
-    List<Student> findByCoursesId(Long courseId);
+    interface StudentCourseRow {
+        Long getId();
 
-    /**
-     * Custom query to find students by first name and last name with pagination.
-     * @param firstName The first name of the student to search for.
-     * @param lastName The last name of the student to search for.
-     * @param pageable Pagination information.
-     * @return A page of Student objects matching the specified first and last names.
-     */
-    Page<Student> findByFirstNameAndLastName(String firstName, String lastName, Pageable pageable);
+        String getFirstName();
+
+        String getLastName();
+
+        String getCourseName();
+    }
 
     /**
-     * Custom native query to find students by first name with pagination.
-     * @param firstName The first name of the student to search for.
-     * @param pageable Pagination information.
-     * @return A page of Student objects matching the specified first name.
+     * Projection of one enrollment, with the columns of the course.
      */
-    @Query(value = "SELECT * FROM students s WHERE s.firstName = ?1", nativeQuery = true)
-    Page<Student> findByFirstName(String firstName, Pageable pageable);
+    interface EnrollmentRow {
+        Long getStudentId();
+
+        Long getCourseId();
+
+        String getCourseName();
+
+        String getDepartment();
+    }
 
     /**
-     * Custom native query to find students by last name with pagination.
-     * @param lastName The last name of the student to search for.
-     * @param pageable Pagination information.
-     * @return A page of Student objects matching the specified last name.
+     * Custom query to read the enrollments of several students at once, selecting only the columns of their courses.
+     * One query serves a whole page of students, whatever the number of students and courses.
+     * @param studentIds The IDs of the students.
+     * @return The enrollment rows, ordered by course name.
      */
-    @Query(value = "SELECT * FROM students s WHERE s.lastName = ?1", nativeQuery = true)
-    Page<Student> findByLastName(String lastName, Pageable pageable);
+    @Query("SELECT s.id AS studentId, c.id AS courseId, c.courseName AS courseName, c.department AS department " +
+            "FROM Student s JOIN s.courses c WHERE s.id IN :studentIds ORDER BY c.courseName")
+    List<EnrollmentRow> findEnrollmentRows(@Param("studentIds") Collection<Long> studentIds);
 
     /**
-     * Custom native query to find students by course name with pagination.
-     * @param courseName The name of the course to search for.
-     * @param pageable Pagination information.
-     * @return A page of Student objects enrolled in the specified course.
+     * Custom query to stream every student with their course names, ordered by student ID so that
+     * the rows of one student are adjacent. Only scalar columns are selected, so no entities
+     * accumulate in the persistence context while the stream is consumed.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     * @return A stream of student and course rows.
      */
-    @Query(value = "SELECT DISTINCT s.* FROM students s LEFT JOIN studentcourse sc ON s.id = sc.studentid LEFT JOIN courses c ON sc.courseid = c.id WHERE (:courseName IS NULL OR c.coursename LIKE CONCAT('%', :courseName, '%'))", nativeQuery = true)
-    Page<Student> findByCourseName(@Param("courseName") String courseName, Pageable pageable);
-
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.id AS id, s.firstName AS firstName, s.lastName AS lastName, c.courseName AS courseName " +
+            "FROM Student s LEFT JOIN s.courses c ORDER BY s.id, c.courseName")
+    Stream<StudentCourseRow> streamStudentsWithCourseNames();
 
-    /**
-     * Custom native query to retrieve students by first name, last name, and course name with pagination.
-     * @param firstName The first name of the student to search for.
-     * @param lastName The last name of the student to search for.
+     /**
+     * Custom query to find students by course name.
+     * The course is matched in a subquery, so the fetched course collections are not narrowed down to it.
      * @param courseName The name of the course to search for.
-     * @param pageable Pagination information.
-     * @return A page of Student objects matching the specified first name, last name, and course name.
+     * @return A list of Student objects enrolled in the specified course, with all their courses loaded.
      */
-    @Query(value = "SELECT s.* FROM students s " +
-            "JOIN studentcourse sc ON s.id = sc.studentid " +
-            "JOIN courses c ON sc.courseid = c.id " +
-            "WHERE s.firstname = :firstName " +
-            "AND s.lastname = :lastName " +
-            "AND c.coursename = :courseName",
-            countQuery = "SELECT COUNT(s.id) FROM students s " +
-                    "JOIN studentcourse sc ON s.id = sc.studentid " +
-                    "JOIN courses c ON sc.courseid = c.id " +
-                    "WHERE s.firstname = :firstName " +
-                    "AND s.lastname = :lastName " +
-                    "AND c.coursename = :courseName",
-            nativeQuery = true)
-    Page<Student> retrieveStudentsByFirstNameLastNameAndCourseName(String firstName, String lastName, String courseName, Pageable pageable);
+    @EntityGraph(attributePaths = "courses")
+    @Query("SELECT s FROM Student s WHERE s.id IN (SELECT e.id FROM Student e JOIN e.courses c WHERE c.courseName = ?1)")
+    List<Student> findByCourses_CourseName(String courseName);
 
     /**
-     * Custom native query to retrieve students by first name and course name with pagination.
+     * Custom query to find students by first name and last name.
      * @param firstName The first name of the student to search for.
-     * @param courseName The name of the course to search for.
-     * @param pageable Pagination information.
-     * @return A page of Student objects matching the specified first name and course name.
+     * @param lastName The last name of the student to search for.
+     * @return A list of Student objects matching the specified first and last names, with their courses loaded.
      */
-    @Query(value = "SELECT s.* FROM students s " +
-            "JOIN studentcourse sc ON s.id = sc.studentid " +
-            "JOIN courses c ON sc.courseid = c.id " +
-            "WHERE s.firstname = :firstName " +
-            "AND c.coursename = :courseName",
-            countQuery = "SELECT COUNT(s.id) FROM students s " +
-                    "JOIN studentcourse sc ON s.id = sc.studentid " +
-                    "JOIN courses c ON sc.courseid = c.id " +
-                    "WHERE s.firstname = :firstName " +
-                    "AND c.coursename = :courseName",
-            nativeQuery = true)
-    Page<Student> retrieveStudentsByFirstNameAndCourseName(String firstName, String courseName, Pageable pageable);
-
+    @EntityGraph(attributePaths = "courses")
+    @Query("SELECT s FROM Student s WHERE s.firstName = ?1 AND s.lastName = ?2")
+    List<Student> findByFirstNameAndLastName(String firstName, String lastName);
+ 
     /**
-     * Custom native query to retrieve students by last name and course name with pagination.
-     * @param lastName The last name of the student to search for.
-     * @param courseName The name of the course to search for.
-     * @param pageable Pagination information.
-     * @return A page of Student objects matching the specified last name and course name.
+     * Custom query to load a student by ID together with its courses in a single query.
+     * @param id The ID of the student to load.
+     * @return The student with its courses initialized, if it exists.
      */
-    @Query(value = "SELECT s.* FROM students s " +
-            "JOIN studentcourse sc ON s.id = sc.studentid " +
-            "JOIN courses c ON sc.courseid = c.id " +
-            "WHERE s.lastname = :lastName " +
-            "AND c.coursename = :courseName",
-            countQuery = "SELECT COUNT(s.id) FROM students s " +
-                    "JOIN studentcourse sc ON s.id = sc.studentid " +
-                    "JOIN courses c ON sc.courseid = c.id " +
-                    "WHERE s.lastname = :lastName " +
-                    "AND c.coursename = :courseName",
-            nativeQuery = true)
-    Page<Student> retrieveStudentsByLastNameAndCourseName(String lastName, String courseName, Pageable pageable);
-}
\ No newline at end of file
+    @EntityGraph(attributePaths = "courses")
+    Optional<Student> findWithCoursesById(Long id);
+}
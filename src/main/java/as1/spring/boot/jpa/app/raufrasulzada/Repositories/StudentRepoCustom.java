@@ -0,0 +1,57 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom queries of {@link StudentRepo} that Spring Data cannot derive.
+ */
+public interface StudentRepoCustom {
+
+    /**
+     * Custom query to find a slice of the students matching a specification.
+     * One row more than the page size is fetched to decide whether a next slice exists,
+     * so unlike a page no count query is run.
+     * @param specification The filters to apply.
+     * @param pageable Pagination information, including the sort.
+     * @return A slice of Student objects matching the specification.
+     */
+    Slice<Student> findSlice(Specification<Student> specification, Pageable pageable);
+
+    /**
+     * Custom query to scroll through the students matching a specification, selecting only some columns.
+     * @param specification The filters to apply.
+     * @param position The keyset position after which to continue.
+     * @param sort The sort order, which must end with the ID as a tiebreaker.
+     * @param limit The maximum number of students to return.
+     * @param attributes The attributes to select; the attributes of the sort are always selected.
+     * @return A window of tuples whose elements are aliased with the attribute names.
+     */
+    Window<Tuple> scrollColumns(Specification<Student> specification, ScrollPosition position, Sort sort, int limit, String... attributes);
+
+    /**
+     * Custom native query to remove every enrollment in a course with a single statement.
+     * Pending changes are flushed first and the persistence context is cleared afterwards,
+     * so no loaded student keeps a stale course set.
+     * @param courseId The ID of the course.
+     * @return The number of enrollments removed.
+     */
+    int deleteEnrollmentsByCourseId(Long courseId);
+
+    /**
+     * Custom query to load students by ID, in the order of the IDs.
+     * Students held by the persistence context or the second-level cache are not read again,
+     * the others are read with IN queries. IDs of students that no longer exist are skipped.
+     * @param ids The IDs of the students to load.
+     * @return A list of Student objects in the order of the IDs.
+     */
+    List<Student> findAllInOrder(List<Long> ids);
+}
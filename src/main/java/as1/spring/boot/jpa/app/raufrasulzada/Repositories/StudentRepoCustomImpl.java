@@ -0,0 +1,115 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Implementation of the {@link StudentRepoCustom} queries, picked up by Spring Data as a fragment of {@link StudentRepo}.
+ */
+public class StudentRepoCustomImpl implements StudentRepoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Finds a slice of the students matching a specification by fetching one row more than the page size.
+     *
+     * @param specification The filters to apply.
+     * @param pageable      Pagination information, including the sort.
+     * @return A slice of Student objects matching the specification.
+     */
+    @Override
+    public Slice<Student> findSlice(Specification<Student> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Student> query = cb.createQuery(Student.class);
+        Root<Student> root = query.from(Student.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        List<Student> students = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = students.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? students.subList(0, pageable.getPageSize()) : students, pageable, hasNext);
+    }
+
+    /**
+     * Scrolls through the students matching a specification, selecting only the given columns.
+     *
+     * @param specification The filters to apply.
+     * @param position      The keyset position after which to continue.
+     * @param sort          The sort order, ending with the ID.
+     * @param limit         The maximum number of students to return.
+     * @param attributes    The attributes to select.
+     * @return A window of tuples aliased with the attribute names.
+     */
+    @Override
+    public Window<Tuple> scrollColumns(Specification<Student> specification, ScrollPosition position, Sort sort, int limit, String... attributes) {
+        return KeysetQueries.scroll(entityManager, Student.class, specification, position, sort, limit, attributes);
+    }
+
+    /**
+     * Removes every enrollment in a course with a single native statement.
+     * <p>
+     * The join table is declared as the only table touched, which invalidates cached query results reading it
+     * but keeps the other second-level cache regions, such as the cached courses. Hibernate does not relate the
+     * join table to the course sets of students, so that collection region is evicted explicitly.
+     *
+     * @param courseId The ID of the course.
+     * @return The number of enrollments removed.
+     */
+    @Override
+    public int deleteEnrollmentsByCourseId(Long courseId) {
+        entityManager.flush();
+        int removed = entityManager.createNativeQuery("DELETE FROM studentcourse WHERE courseid = :courseId")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("studentcourse")
+                .setParameter("courseId", courseId)
+                .executeUpdate();
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache()
+                .evictCollectionData(Student.class.getName() + ".courses");
+        entityManager.clear();
+        return removed;
+    }
+
+    /**
+     * Loads students by ID through Hibernate's multi-load, which keeps the order of the IDs.
+     * The persistence context and the second-level cache are only consulted when asked to.
+     *
+     * @param ids The IDs of the students to load.
+     * @return The students in the order of the IDs, without the ones that no longer exist.
+     */
+    @Override
+    public List<Student> findAllInOrder(List<Long> ids) {
+        Session session = entityManager.unwrap(Session.class);
+        return session.byMultipleIds(Student.class)
+                .enableSessionCheck(true)
+                .with(session.getCacheMode())
+                .multiLoad(ids).stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,61 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Repositories;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Composable filters for querying Student entities through {@link StudentRepo}.
+ * <p>
+ * Every filter only adds a predicate to the WHERE clause, so any combination of them
+ * still produces one query over the students table, with no joins in the outer query.
+ */
+public final class StudentSpecifications {
+
+    private StudentSpecifications() {
+
+    }
+
+    /**
+     * Matches students with the given first name.
+     * @param firstName The first name to match exactly.
+     * @return The specification.
+     */
+    public static Specification<Student> hasFirstName(String firstName) {
+        return (root, query, cb) -> cb.equal(root.get("firstName"), firstName);
+    }
+
+    /**
+     * Matches students with the given last name.
+     * @param lastName The last name to match exactly.
+     * @return The specification.
+     */
+    public static Specification<Student> hasLastName(String lastName) {
+        return (root, query, cb) -> cb.equal(root.get("lastName"), lastName);
+    }
+
+    /**
+     * Matches students enrolled in at least one of the given courses.
+     * The enrollment is checked with a correlated EXISTS subquery, so a student enrolled in
+     * several matching courses is still returned once and no DISTINCT is needed.
+     * @param courseIds The IDs of the courses; an empty collection matches no student.
+     * @return The specification.
+     */
+    public static Specification<Student> enrolledInAny(Collection<Long> courseIds) {
+        return (root, query, cb) -> {
+            if (courseIds.isEmpty()) {
+                return cb.disjunction();
+            }
+            Subquery<Integer> enrollment = query.subquery(Integer.class);
+            Root<Student> student = enrollment.correlate(root);
+            Join<Student, Course> course = student.join("courses");
+            enrollment.select(cb.literal(1)).where(course.get("id").in(courseIds));
+            return cb.exists(enrollment);
+        };
+    }
+}
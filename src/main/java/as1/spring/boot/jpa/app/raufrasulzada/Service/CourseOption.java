@@ -0,0 +1,14 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * A course as listed in the course dropdowns. It is written as a two-element JSON array,
+ * {@code [id, "name"]}, to keep the option list small.
+ *
+ * @param id   The ID of the course.
+ * @param name The name of the course.
+ */
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+public record CourseOption(Long id, String name) {
+}
@@ -0,0 +1,11 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+/**
+ * The columns of a course, as returned by the JSON API.
+ *
+ * @param id         The ID of the course.
+ * @param courseName The name of the course.
+ * @param department The department of the course.
+ */
+public record CourseSummary(Long id, String courseName, String department) {
+}
@@ -0,0 +1,43 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+/**
+ * Published when courses have been saved, updated, deleted or imported. Listeners bound to the transaction run
+ * once the change is committed.
+ * <p>
+ * A write of a single course names it, so listeners can apply the change instead of reading every course again:
+ * a saved or renamed course comes with its current name, a deleted one without a name. Changes of any number
+ * of courses, such as an import or the writes of another instance, name no course.
+ *
+ * @param courseId   The ID of the course written, or null if any course may have changed.
+ * @param courseName The current name of the course, or null if it was deleted.
+ */
+public record CoursesChangedEvent(Long courseId, String courseName) {
+
+    /**
+     * Creates the event of a change to any number of courses.
+     */
+    public CoursesChangedEvent() {
+        this(null, null);
+    }
+
+    /**
+     * Creates the event of a saved or renamed course.
+     *
+     * @param courseId   The ID of the course.
+     * @param courseName The current name of the course.
+     * @return The event.
+     */
+    public static CoursesChangedEvent saved(Long courseId, String courseName) {
+        return new CoursesChangedEvent(courseId, courseName);
+    }
+
+    /**
+     * Creates the event of a deleted course.
+     *
+     * @param courseId The ID of the course.
+     * @return The event.
+     */
+    public static CoursesChangedEvent deleted(Long courseId) {
+        return new CoursesChangedEvent(courseId, null);
+    }
+}
@@ -3,8 +3,12 @@ package as1.spring.boot.jpa.app.raufrasulzada.Service;
 import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service interface for managing Course entities.
@@ -17,6 +21,18 @@ public interface CrService {
      */
     List<Course> retrieveAllCourses();
 
+    /**
+     * Retrieves the ID and name of every course, ordered by ID, for the course dropdowns.
+     * @return List of course options.
+     */
+    List<CourseOption> retrieveCourseOptions();
+
+    /**
+     * Retrieves the distinct departments of all courses.
+     * @return List of department names.
+     */
+    List<String> retrieveAllDepartments();
+
     /**
      * Saves a new course.
      * @param course The course to be saved.
@@ -28,9 +44,18 @@ public interface CrService {
      * Retrieves a course by its ID.
      * @param id The ID of the course to retrieve.
      * @return The retrieved course.
+     * @throws UnknownCourseException If no course has the given ID.
      */
     Course retrieveCourseById(Long id);
 
+    /**
+     * Retrieves several courses by their IDs in a single query.
+     * @param ids The IDs of the courses to retrieve.
+     * @return The retrieved courses.
+     * @throws UnknownCourseException If any of the IDs does not belong to a course.
+     */
+    Set<Course> retrieveCoursesByIds(Collection<Long> ids);
+
     /**
      * Updates an existing course.
      * @param course The course to be updated.
@@ -58,12 +83,39 @@ public interface CrService {
      */
     Page<Course> retrieveAllCoursesPaginated(Pageable pageable);
 
+    /**
+     * Retrieves all courses using keyset pagination.
+     * @param after The opaque cursor of the last course already shown, or an empty value for the first window.
+     * @param sort The sort order; the ID is appended as a tiebreaker.
+     * @param limit The maximum number of courses to return.
+     * @return A window of courses.
+     */
+    Window<Course> retrieveAllCoursesAfter(String after, Sort sort, int limit);
+
+    /**
+     * Retrieves the columns of the courses matching the filters using keyset pagination, without loading the entities.
+     * @param courseName Text contained in the name of the course, matched case-sensitively, or an empty value for any name.
+     * @param department The department of the course, or an empty value for any department.
+     * @param after The opaque cursor of the last course already returned, or an empty value for the first window.
+     * @param sort The sort order; the ID is appended as a tiebreaker.
+     * @param limit The maximum number of courses to return.
+     * @return A window of course summaries.
+     */
+    Window<CourseSummary> retrieveCourseSummaries(String courseName, String department, String after, Sort sort, int limit);
+
     /**
      * Updates students when a course is deleted.
      * @param courseId The ID of the course to delete.
      */
     void updateStudentsWhenCourseDeleted(Long courseId);
 
+    /**
+     * Finds the IDs of all courses whose name contains the given text, matched case-sensitively, using an in-memory trigram index.
+     * @param courseName The text to search for in course names.
+     * @return The IDs of the matching courses in ascending order.
+     */
+    List<Long> findCourseIdsByNameContaining(String courseName);
+
     /**
      * Retrieves courses by course name with pagination.
      * @param courseName The name of the course to search for.
@@ -0,0 +1,53 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+/**
+ * The file formats used by bulk imports and exports.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum DataFormat {
+
+    /**
+     * Comma separated values with a header row naming the columns.
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * Newline delimited JSON, one object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+
+    private final String extension;
+
+    /**
+     * Resolves a format from its case-insensitive name.
+     *
+     * @param name The name of the format, such as "csv".
+     * @return The matching format.
+     * @throws IllegalArgumentException If no format has the given name.
+     */
+    public static DataFormat fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Resolves a format from the extension of a file name.
+     *
+     * @param fileName The name of the file to import.
+     * @return NDJSON for .ndjson, .jsonl and .json files, CSV otherwise.
+     */
+    public static DataFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl") || lower.endsWith(".json")) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+}
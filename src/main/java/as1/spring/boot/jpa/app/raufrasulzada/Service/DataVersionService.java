@@ -0,0 +1,36 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import java.util.Map;
+
+/**
+ * Service interface for the version of the stored students and courses, used to validate cached pages.
+ * The versions are counted in the database, so every instance sharing it arrives at the same versions,
+ * and handed out from memory, so they can be read on every request without a query. The writes of other
+ * instances show up once they have been polled.
+ */
+public interface DataVersionService {
+
+    /**
+     * Returns the current data version. It increases whenever a write to students, courses or enrollments
+     * is committed, and it keeps increasing across restarts. It is read from memory.
+     * @return The current data version.
+     */
+    long currentVersion();
+
+    /**
+     * Returns the current version of the course catalog. It only increases when a write to courses is committed,
+     * so pages and fragments listing the courses stay valid while students change.
+     * @return The current catalog version.
+     */
+    long catalogVersion();
+
+    /**
+     * Computes a strong entity tag for a page rendered from the current data.
+     * The tag changes with the data version, the path and the request parameters, so it can be compared
+     * with an {@code If-None-Match} header before anything is read from the database.
+     * @param path The path of the page.
+     * @param parameters The request parameters of the page.
+     * @return The quoted entity tag.
+     */
+    String etag(String path, Map<String, String[]> parameters);
+}
@@ -0,0 +1,25 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import java.io.OutputStream;
+
+/**
+ * Service interface for exporting students and courses.
+ */
+public interface ExportService {
+
+    /**
+     * Writes every student with the names of their courses to a stream: one CSV row per enrollment,
+     * or one NDJSON record per student with an array of course names.
+     * Rows are streamed from the database, so memory use does not grow with the number of students.
+     * @param format The format to write.
+     * @param output The stream to write to; it is flushed but not closed.
+     */
+    void exportStudents(DataFormat format, OutputStream output);
+
+    /**
+     * Writes every course to a stream, one record per course.
+     * @param format The format to write.
+     * @param output The stream to write to; it is flushed but not closed.
+     */
+    void exportCourses(DataFormat format, OutputStream output);
+}
@@ -0,0 +1,192 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CoursesChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over course names for substring search.
+ * <p>
+ * Every lower-cased three-character sequence of a course name maps to the IDs of the courses
+ * containing it. A search intersects the ID sets of the trigrams of the search text and then checks
+ * the remaining candidates with the same case-sensitive substring match as SQL {@code LIKE '%x%'},
+ * on the text without surrounding blanks; {@link #normalize(String)} gives the text a search actually
+ * looks for. Search text shorter than three characters falls back to checking every name.
+ * <p>
+ * The index is loaded from the database on first use. A {@link CoursesChangedEvent} naming a course adds,
+ * renames or removes that course once its write has been committed, so renamed and deleted courses are never
+ * found by their old names. An event naming no course, as imports and the writes of other instances publish,
+ * discards the index, and the next search reloads it with one more statement.
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseNameIndex {
+
+    private static final int GRAM = 3;
+
+    private final CourseRepo courseRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, String> names = new HashMap<>();
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    private boolean loaded;
+
+    /**
+     * Finds the IDs of all courses whose name contains the given text.
+     *
+     * @param text The text to search for, matched case-sensitively; surrounding blanks are ignored.
+     * @return The IDs of the matching courses in ascending order.
+     */
+    public List<Long> search(String text) {
+        text = normalize(text);
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = text.length() < GRAM ? names.keySet() : candidates(text.toLowerCase(Locale.ROOT));
+            List<Long> ids = new ArrayList<>();
+            for (Long id : candidates) {
+                if (names.get(id).contains(text)) {
+                    ids.add(id);
+                }
+            }
+            Collections.sort(ids);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalizes search text the way {@link #search(String)} does, so that texts finding the same courses
+     * are equal, as cache keys of searches by course name have to be.
+     *
+     * @param text The search text.
+     * @return The text, trimmed.
+     */
+    public static String normalize(String text) {
+        return text.trim();
+    }
+
+    /**
+     * Applies a course write to the index once it has been committed, or discards the index if the event
+     * names no course. Course writes outside a transaction, such as imports, are handled right away.
+     *
+     * @param event The event of the write.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoursesChanged(CoursesChangedEvent event) {
+        if (event.courseId() == null) {
+            invalidate();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // An index that is not loaded yet reads the committed write when it is
+            if (loaded) {
+                removeEntry(event.courseId());
+                if (event.courseName() != null) {
+                    addEntry(event.courseId(), event.courseName());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards the index so that it is reloaded from the database on the next search.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            names.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<Long> candidates(String text) {
+        List<Set<Long>> sets = new ArrayList<>();
+        for (String gram : grams(text)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Set.of();
+            }
+            sets.add(ids);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+            result.retainAll(sets.get(i));
+        }
+        return result;
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                courseRepo.findAllCourseRows().forEach(row -> addEntry(row.getId(), row.getCourseName()));
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addEntry(Long id, String name) {
+        names.put(id, name);
+        for (String gram : grams(name.toLowerCase(Locale.ROOT))) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removeEntry(Long id) {
+        String name = names.remove(id);
+        if (name == null) {
+            return;
+        }
+        for (String gram : grams(name.toLowerCase(Locale.ROOT))) {
+            Set<Long> ids = postings.get(gram);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> grams(String lower) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            grams.add(lower.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
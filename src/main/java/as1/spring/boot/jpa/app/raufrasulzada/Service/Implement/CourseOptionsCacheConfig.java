@@ -0,0 +1,30 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the cache of the course dropdowns: the course options and their rendered HTML, keyed by catalog version.
+ * <p>
+ * Entries of an older catalog version are never read again; the cache is cleared after every course write,
+ * and its small maximum size only has to hold the entries of the current version.
+ */
+@Configuration
+public class CourseOptionsCacheConfig {
+
+    public static final String COURSE_OPTIONS_CACHE = "courseOptions";
+
+    /**
+     * Adds the course options cache to the Caffeine cache manager.
+     *
+     * @return The customizer registering the cache.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> courseOptionsCacheCustomizer() {
+        return cacheManager -> cacheManager.registerCustomCache(COURSE_OPTIONS_CACHE,
+                Caffeine.newBuilder().maximumSize(16).recordStats().build());
+    }
+}
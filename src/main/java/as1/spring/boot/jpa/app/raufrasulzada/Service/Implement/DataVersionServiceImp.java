@@ -0,0 +1,271 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.DataVersion;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.DataVersionRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CoursesChangedEvent;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataVersionService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentsChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Implementation of the {@link DataVersionService} interface.
+ * <p>
+ * The versions are rows of the {@code data_versions} table, one for the students and one for the courses, so every
+ * instance sharing the database counts the same versions. The {@link StudentsChangedEvent} and {@link CoursesChangedEvent}
+ * that every write of {@link ServiceImp} and every import batch publish increase the row of their kind right before
+ * their transaction commits, with a single statement returning the new version. The data version is the sum of both
+ * rows, the catalog version the course row. The rows start at the time they are created in milliseconds, so versions
+ * do not repeat when an in-memory database is created anew.
+ * <p>
+ * The versions handed out are kept in memory, so answering a request never queries the database. A write of this
+ * instance advances them once its transaction has committed and the caches it changed have been cleared. The writes
+ * of other instances are noticed by polling the rows every {@code data-versions.poll-interval}: a version that
+ * increased beyond the writes of this instance clears the caches holding data of its kind, and publishes the event
+ * of that kind, before it is handed out.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionServiceImp implements DataVersionService, SmartInitializingSingleton {
+
+    private static final List<String> CATALOG_CACHES = List.of(ServiceImp.DEPARTMENTS_CACHE);
+
+    private final DataVersionRepo dataVersionRepo;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final CacheManager cacheManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Map<String, KnownVersions> knownVersions = Map.of(
+            DataVersion.STUDENTS, new KnownVersions(), DataVersion.COURSES, new KnownVersions());
+
+    /**
+     * Creates the missing version rows once the application has started, and takes the current versions as seen.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> knownVersions.keySet().stream()
+                    .filter(name -> !dataVersionRepo.existsById(name))
+                    .forEach(name -> dataVersionRepo.save(new DataVersion(name, System.currentTimeMillis()))));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance sharing the database created them at the same time
+        }
+        dataVersionRepo.readFromPrimary().forEach(version -> knownVersions.get(version.getName()).seen(version.getVersion()));
+    }
+
+    /**
+     * Returns the current data version.
+     *
+     * @return The sum of the student and the course version.
+     */
+    @Override
+    public long currentVersion() {
+        return knownVersions.values().stream().mapToLong(KnownVersions::current).sum();
+    }
+
+    /**
+     * Returns the current catalog version.
+     *
+     * @return The course version.
+     */
+    @Override
+    public long catalogVersion() {
+        return knownVersions.get(DataVersion.COURSES).current();
+    }
+
+    /**
+     * Computes the entity tag of a page from the data version and a digest of the path and the sorted parameters.
+     *
+     * @param path       The path of the page.
+     * @param parameters The request parameters of the page.
+     * @return The quoted entity tag.
+     */
+    @Override
+    public String etag(String path, Map<String, String[]> parameters) {
+        StringBuilder request = new StringBuilder(path);
+        new TreeMap<>(parameters).forEach((name, values) -> request.append('&').append(name).append('=').append(String.join(",", values)));
+        return "\"" + currentVersion() + "-" + DigestUtils.md5DigestAsHex(request.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Increases the student version in the transaction of a student write.
+     *
+     * @param event The event of the write.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onStudentsChanged(StudentsChangedEvent event) {
+        increment(DataVersion.STUDENTS);
+    }
+
+    /**
+     * Increases the course version in the transaction of a course write.
+     *
+     * @param event The event of the write.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCoursesChanged(CoursesChangedEvent event) {
+        increment(DataVersion.COURSES);
+    }
+
+    /**
+     * Reads the versions from the primary database and clears the caches holding data that another instance
+     * has changed since the last poll. Runs on the scheduler, never on a request, starting one interval after
+     * the versions were first read at startup.
+     */
+    @Scheduled(initialDelayString = "${data-versions.poll-interval:PT1S}", fixedDelayString = "${data-versions.poll-interval:PT1S}")
+    public synchronized void pollVersions() {
+        Map<String, Long> versions = new HashMap<>();
+        dataVersionRepo.readFromPrimary().forEach(version -> versions.put(version.getName(), version.getVersion()));
+        long students = versions.getOrDefault(DataVersion.STUDENTS, 0L);
+        long courses = versions.getOrDefault(DataVersion.COURSES, 0L);
+        boolean studentsChanged = knownVersions.get(DataVersion.STUDENTS).changedElsewhere(students);
+        boolean coursesChanged = knownVersions.get(DataVersion.COURSES).changedElsewhere(courses);
+        if (studentsChanged || coursesChanged) {
+            clearCaches(studentsChanged, coursesChanged);
+        }
+        // Only handed out once the caches no longer hold data older than them
+        knownVersions.get(DataVersion.STUDENTS).advance(students);
+        knownVersions.get(DataVersion.COURSES).advance(courses);
+    }
+
+    private void increment(String name) {
+        PendingVersions pending = (PendingVersions) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingVersions();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        // A transaction publishing several events of a kind is still a single write
+        if (pending.versions.containsKey(name)) {
+            return;
+        }
+        pending.versions.put(name, dataVersionRepo.increment(name));
+    }
+
+    private void clearCaches(boolean students, boolean courses) {
+        org.hibernate.Cache secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (courses) {
+            CATALOG_CACHES.stream().map(cacheManager::getCache).filter(cache -> cache != null).forEach(Cache::clear);
+            secondLevelCache.evictEntityData(Course.class);
+            eventPublisher.publishEvent(new CoursesChangedEvent());
+        }
+        if (students) {
+            eventPublisher.publishEvent(new StudentsChangedEvent());
+        }
+        // Enrollments change with students and with deleted courses, and cached query results with either
+        secondLevelCache.evictCollectionData(Student.class.getName() + ".courses");
+        secondLevelCache.evictQueryRegions();
+    }
+
+    /**
+     * The versions increased by the current transaction, handed to the known versions once it has committed.
+     */
+    private final class PendingVersions implements TransactionSynchronization {
+
+        private final Map<String, Long> versions = new HashMap<>();
+
+        /**
+         * Registered when the transaction is about to commit, after the listeners clearing the caches of its events,
+         * so with the same order the versions are only advanced once those caches have been cleared.
+         *
+         * @return The lowest precedence.
+         */
+        @Override
+        public int getOrder() {
+            return LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void afterCommit() {
+            versions.forEach((name, version) -> {
+                if (version != null) {
+                    knownVersions.get(name).written(version);
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(DataVersionServiceImp.this);
+        }
+    }
+
+    /**
+     * The version of a kind handed out by this instance, the last version polled and the newer versions
+     * its own writes produced.
+     */
+    private static final class KnownVersions {
+
+        private volatile long current;
+
+        private long seen;
+
+        private final NavigableSet<Long> written = new TreeSet<>();
+
+        long current() {
+            return current;
+        }
+
+        synchronized void seen(long version) {
+            seen = Math.max(seen, version);
+            advance(version);
+        }
+
+        synchronized void written(long version) {
+            if (version > seen) {
+                written.add(version);
+            }
+            advance(version);
+        }
+
+        synchronized void advance(long version) {
+            current = Math.max(current, version);
+        }
+
+        /**
+         * Takes a polled version as seen.
+         *
+         * @param version The version read from the database.
+         * @return Whether a version up to it was produced by another instance.
+         */
+        synchronized boolean changedElsewhere(long version) {
+            if (version <= seen) {
+                return false;
+            }
+            NavigableSet<Long> own = written.subSet(seen, false, version, true);
+            boolean changedElsewhere = own.size() != version - seen;
+            own.clear();
+            seen = version;
+            return changedElsewhere;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method that writes courses, clearing the cached departments.
+ * The courses themselves are only cached by the second-level cache, which Hibernate keeps up to date,
+ * and the listing totals are cleared by {@link SearchResultInvalidation} once the write has been committed.
+ * <p>
+ * The caches are cleared both before the write, so a failed write cannot leave a stale
+ * entry behind, and after it, so entries read while the write was running are dropped.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Caching(evict = {
+        @CacheEvict(cacheNames = ServiceImp.DEPARTMENTS_CACHE, allEntries = true, beforeInvocation = true),
+        @CacheEvict(cacheNames = ServiceImp.DEPARTMENTS_CACHE, allEntries = true)
+})
+public @interface EvictsCourseCatalog {
+}
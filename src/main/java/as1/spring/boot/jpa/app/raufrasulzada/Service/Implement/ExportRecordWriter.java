@@ -0,0 +1,105 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes export records one at a time as CSV or NDJSON.
+ * <p>
+ * CSV output starts with a header row and has one value per column, quoted where needed.
+ * NDJSON output has one object per line, with collection values written as arrays.
+ */
+class ExportRecordWriter implements Flushable {
+
+    private final Writer writer;
+
+    private final DataFormat format;
+
+    private final JsonGenerator generator;
+
+    private final List<String> columns;
+
+    /**
+     * Constructor for ExportRecordWriter.
+     *
+     * @param output       The stream to write to, encoded as UTF-8.
+     * @param format       The format to write.
+     * @param objectMapper The mapper used to create the NDJSON generator.
+     * @param columns      The column names, in the order values are passed to {@link #write(Object...)}.
+     * @throws IOException If the CSV header cannot be written.
+     */
+    ExportRecordWriter(OutputStream output, DataFormat format, ObjectMapper objectMapper, List<String> columns) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        this.format = format;
+        this.columns = columns;
+        if (format == DataFormat.NDJSON) {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        } else {
+            this.generator = null;
+            writeCsvRow(columns);
+        }
+    }
+
+    /**
+     * Writes one record.
+     *
+     * @param values The values of the record, in column order.
+     * @throws IOException If the record cannot be written.
+     */
+    void write(Object... values) throws IOException {
+        if (format == DataFormat.NDJSON) {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeFieldName(columns.get(i));
+                generator.writeObject(values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } else {
+            writeCsvRow(Arrays.asList(values));
+        }
+    }
+
+    private void writeCsvRow(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value instanceof Collection<?>) {
+                throw new IllegalArgumentException("CSV columns hold single values, not " + value);
+            }
+            writer.write(escapeCsv(value == null ? "" : value.toString()));
+        }
+        writer.write('\n');
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,111 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link ExportService} interface.
+ * <p>
+ * Exports read scalar projections through a database cursor inside a read-only transaction and
+ * write each record as soon as it is complete, so neither the heap nor the persistence context
+ * grows with the size of the export.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImp implements ExportService {
+
+    private final StudentRepo studentRepo;
+
+    private final CourseRepo courseRepo;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Exports every student with their course names.
+     * CSV gets one row per enrollment, and a row with an empty course name for a student without courses,
+     * so course names never have to share a column. In NDJSON the rows of a student, which are adjacent
+     * in the stream, are merged into one record with an array of course names.
+     *
+     * @param format The format to write.
+     * @param output The stream to write to.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportStudents(DataFormat format, OutputStream output) {
+        try (Stream<StudentRepo.StudentCourseRow> rows = studentRepo.streamStudentsWithCourseNames()) {
+            if (format == DataFormat.CSV) {
+                writeEnrollmentRows(rows.iterator(), output);
+            } else {
+                writeStudentRecords(rows.iterator(), format, output);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write export", e);
+        }
+    }
+
+    private void writeEnrollmentRows(Iterator<StudentRepo.StudentCourseRow> rows, OutputStream output) throws IOException {
+        ExportRecordWriter writer = new ExportRecordWriter(output, DataFormat.CSV, objectMapper, List.of("id", "firstName", "lastName", "courseName"));
+        while (rows.hasNext()) {
+            StudentRepo.StudentCourseRow row = rows.next();
+            writer.write(row.getId(), row.getFirstName(), row.getLastName(), row.getCourseName());
+        }
+        writer.flush();
+    }
+
+    private void writeStudentRecords(Iterator<StudentRepo.StudentCourseRow> rows, DataFormat format, OutputStream output) throws IOException {
+        ExportRecordWriter writer = new ExportRecordWriter(output, format, objectMapper, List.of("id", "firstName", "lastName", "courses"));
+        StudentRepo.StudentCourseRow current = null;
+        List<String> courseNames = new ArrayList<>();
+        while (rows.hasNext()) {
+            StudentRepo.StudentCourseRow row = rows.next();
+            if (current != null && !current.getId().equals(row.getId())) {
+                writer.write(current.getId(), current.getFirstName(), current.getLastName(), courseNames);
+                courseNames.clear();
+            }
+            current = row;
+            if (row.getCourseName() != null) {
+                courseNames.add(row.getCourseName());
+            }
+        }
+        if (current != null) {
+            writer.write(current.getId(), current.getFirstName(), current.getLastName(), courseNames);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Exports every course.
+     *
+     * @param format The format to write.
+     * @param output The stream to write to.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCourses(DataFormat format, OutputStream output) {
+        try (Stream<CourseRepo.CourseRow> rows = courseRepo.streamCourses()) {
+            ExportRecordWriter writer = new ExportRecordWriter(output, format, objectMapper, List.of("id", "courseName", "department"));
+            Iterator<CourseRepo.CourseRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                CourseRepo.CourseRow row = iterator.next();
+                writer.write(row.getId(), row.getCourseName(), row.getDepartment());
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write export", e);
+        }
+    }
+}
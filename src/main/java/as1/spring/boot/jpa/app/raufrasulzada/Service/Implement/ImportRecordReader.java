@@ -0,0 +1,148 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads import records one line at a time from a CSV or NDJSON stream.
+ * <p>
+ * Only the current line is held in memory. CSV input must start with a header row naming the
+ * columns; quoted fields may contain commas and doubled quotes but not line breaks.
+ */
+class ImportRecordReader implements Closeable {
+
+    private final BufferedReader reader;
+
+    private final DataFormat format;
+
+    private final ObjectMapper objectMapper;
+
+    private List<String> header;
+
+    private long lineNumber;
+
+    /**
+     * Constructor for ImportRecordReader.
+     *
+     * @param input        The stream to read, decoded as UTF-8.
+     * @param format       The format of the stream.
+     * @param objectMapper The mapper used to parse NDJSON lines.
+     */
+    ImportRecordReader(InputStream input, DataFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return The fields of the record by column name, or null at the end of the stream.
+     * @throws IOException              If the stream cannot be read.
+     * @throws IllegalArgumentException If the current line is malformed; the reader can continue with the next line.
+     */
+    Map<String, String> next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        if (format == DataFormat.NDJSON) {
+            return parseJson(line);
+        }
+        if (header == null) {
+            header = parseCsv(line).stream().map(String::trim).toList();
+            return next();
+        }
+        List<String> values = parseCsv(line);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            record.put(header.get(i), values.get(i));
+        }
+        return record;
+    }
+
+    /**
+     * Returns the line number of the record last returned by {@link #next()}.
+     *
+     * @return The 1-based line number.
+     */
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    private Map<String, String> parseJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        Map<String, String> record = new HashMap<>();
+        node.fields().forEachRemaining(field -> {
+            if (!field.getValue().isNull()) {
+                record.put(field.getKey(), field.getValue().asText());
+            }
+        });
+        return record;
+    }
+
+    private static List<String> parseCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
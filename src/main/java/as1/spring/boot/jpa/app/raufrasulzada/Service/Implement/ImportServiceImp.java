@@ -0,0 +1,227 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CoursesChangedEvent;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportKind;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportReport;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the {@link ImportService} interface.
+ * <p>
+ * Records are parsed one line at a time and written in batches, each in its own transaction.
+ * Students and courses are persisted through JPA and the persistence context is flushed and
+ * cleared after every batch; enrollments have no entity of their own and go straight to the
+ * {@code studentcourse} join table as JDBC batch inserts, so the course sets of students are
+ * evicted from the second-level cache afterwards. Every batch publishes a {@link StudentsChangedEvent}
+ * or, for courses, a {@link CoursesChangedEvent} in its transaction, so batches written before a failure count as
+ * writes as well.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportServiceImp implements ImportService {
+
+    private static final String INSERT_ENROLLMENT = "INSERT INTO studentcourse (studentid, courseid) " +
+            "SELECT s.id, ? FROM students s WHERE s.id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM studentcourse sc WHERE sc.studentid = s.id AND sc.courseid = ?)";
+
+    private final EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CourseRepo courseRepo;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${import.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Imports records from a stream in batches.
+     *
+     * @param kind   The kind of records in the stream.
+     * @param format The format of the stream.
+     * @param input  The stream to read.
+     * @return A report of the import.
+     */
+    @Override
+    @EvictsCourseCatalog
+    public ImportReport importRecords(ImportKind kind, DataFormat format, InputStream input) {
+        ImportReport report = new ImportReport(kind);
+        Object event = kind == ImportKind.COURSES ? new CoursesChangedEvent() : new StudentsChangedEvent();
+        try (ImportRecordReader reader = new ImportRecordReader(input, format, objectMapper)) {
+            switch (kind) {
+                case STUDENTS -> importInBatches(reader, report, event, this::toStudent, this::persistBatch);
+                case COURSES -> {
+                    Set<String> courseNames = courseRepo.findAll().stream().map(Course::getCourseName).collect(Collectors.toCollection(HashSet::new));
+                    importInBatches(reader, report, event, record -> toCourse(record, courseNames), this::persistBatch);
+                }
+                case ENROLLMENTS -> {
+                    Map<String, Long> courseIds = courseRepo.findAll().stream().collect(Collectors.toMap(Course::getCourseName, Course::getId));
+                    importInBatches(reader, report, event, record -> toEnrollment(record, courseIds), batch -> insertEnrollments(batch, report));
+                    entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache()
+                            .evictCollectionData(Student.class.getName() + ".courses");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import", e);
+        }
+        report.finish();
+        return report;
+    }
+
+    /**
+     * Reads every record, converts it and hands full batches to the writer.
+     * Rows that cannot be parsed or converted are reported and skipped, and so are all rows of a batch that fails.
+     *
+     * @param reader    The reader to take records from.
+     * @param report    The report to update.
+     * @param event     The event every batch publishes.
+     * @param converter Converts a record into the value to write.
+     * @param writer    Writes a batch and returns how many rows were imported.
+     */
+    private <T> void importInBatches(ImportRecordReader reader, ImportReport report, Object event,
+                                     Function<Map<String, String>, T> converter, ToIntFunction<List<Row<T>>> writer) throws IOException {
+        List<Row<T>> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Map<String, String> record;
+            try {
+                record = reader.next();
+            } catch (IllegalArgumentException e) {
+                report.rowRead();
+                report.rowFailed(reader.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+            report.rowRead();
+            try {
+                batch.add(new Row<>(reader.getLineNumber(), converter.apply(record)));
+            } catch (IllegalArgumentException e) {
+                report.rowFailed(reader.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (batch.size() == batchSize) {
+                writeBatch(batch, report, event, writer);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, report, event, writer);
+        }
+    }
+
+    private <T> void writeBatch(List<Row<T>> batch, ImportReport report, Object event, ToIntFunction<List<Row<T>>> writer) {
+        try {
+            Integer imported = transactionTemplate.execute(status -> {
+                int written = writer.applyAsInt(batch);
+                eventPublisher.publishEvent(event);
+                return written;
+            });
+            report.rowsImported(imported != null ? imported : 0);
+        } catch (RuntimeException e) {
+            // Constraint violations surface as DataAccessException or, from the entity manager, as
+            // PersistenceException; whatever failed, the batch was rolled back and the import goes on
+            String message = "Batch failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            batch.forEach(row -> report.rowFailed(row.line(), message));
+        }
+    }
+
+    private int persistBatch(List<? extends Row<?>> batch) {
+        batch.forEach(row -> entityManager.persist(row.value()));
+        entityManager.flush();
+        entityManager.clear();
+        return batch.size();
+    }
+
+    private int insertEnrollments(List<Row<long[]>> batch, ImportReport report) {
+        List<Object[]> arguments = batch.stream()
+                .map(row -> new Object[]{row.value()[1], row.value()[0], row.value()[1]})
+                .toList();
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_ENROLLMENT, arguments);
+        int imported = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                report.rowFailed(batch.get(i).line(), "Unknown student or already enrolled");
+            } else {
+                imported++;
+            }
+        }
+        return imported;
+    }
+
+    private Student toStudent(Map<String, String> record) {
+        return new Student(required(record, "firstName"), required(record, "lastName"));
+    }
+
+    private Course toCourse(Map<String, String> record, Set<String> courseNames) {
+        Course course = new Course(required(record, "courseName"), required(record, "department"));
+        if (!courseNames.add(course.getCourseName())) {
+            throw new IllegalArgumentException("Course already exists: " + course.getCourseName());
+        }
+        return course;
+    }
+
+    private long[] toEnrollment(Map<String, String> record, Map<String, Long> courseIds) {
+        String studentId = required(record, "studentId");
+        String courseName = required(record, "courseName");
+        Long courseId = courseIds.get(courseName);
+        if (courseId == null) {
+            throw new IllegalArgumentException("Unknown course: " + courseName);
+        }
+        try {
+            return new long[]{Long.parseLong(studentId.trim()), courseId};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid studentId: " + studentId);
+        }
+    }
+
+    private static String required(Map<String, String> record, String column) {
+        String value = record.get(column);
+        if (!StringUtils.hasText(value)) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return value.trim();
+    }
+
+    /**
+     * A converted record together with its line number in the input.
+     *
+     * @param line  The line number of the record.
+     * @param value The converted record.
+     */
+    private record Row<T>(long line, T value) {
+    }
+}
@@ -0,0 +1,48 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the application metrics that Spring Boot does not set up on its own.
+ * <p>
+ * Web requests, the connection pool, the caches and the Hibernate statistics are instrumented
+ * by Spring Boot; this adds the timers of {@code @Timed} service classes and the per-request
+ * statement counting, checked against the {@code sql-budget.*} limits.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+public class MetricsConfig {
+
+    /**
+     * The name of the timer recorded for every service method.
+     */
+    public static final String SERVICE_TIMER = "service.method";
+
+    /**
+     * Records a timer for every method of a class annotated with {@code @Timed}.
+     *
+     * @param meterRegistry The registry to record to.
+     * @return The aspect.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Registers the statement counter as Hibernate's statement inspector.
+     *
+     * @param statementCounter The counter.
+     * @return The customizer registering it.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(SqlStatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+}
@@ -0,0 +1,111 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Splits database traffic between the primary database and a read replica.
+ * <p>
+ * Active when {@code spring.datasource.replica.url} is set. The primary pool is configured from
+ * {@code spring.datasource.*} as usual, the replica pool from {@code spring.datasource.replica.*}, with
+ * Hikari settings under {@code spring.datasource.replica.hikari.*}. Both sit behind a
+ * {@link LazyConnectionDataSourceProxy}, which only fetches a physical connection when the first statement
+ * runs: connections of read-only transactions come from the replica, all others from the primary.
+ * <p>
+ * The replica is expected to be a copy of the primary that lags behind it. While the {@link ReplicaLagTracker}
+ * finds it behind the writes this instance knows of, read-only transactions are served by the primary as well,
+ * so a read after a write sees it and the caches are never refilled with older rows.
+ */
+@Configuration
+@ConditionalOnProperty(ReadReplicaConfig.REPLICA_PREFIX + ".url")
+public class ReadReplicaConfig {
+
+    static final String REPLICA_PREFIX = "spring.datasource.replica";
+
+    static final String WRITE_DATA_SOURCE = "writeDataSource";
+
+    static final String READ_DATA_SOURCE = "readDataSource";
+
+    static final String LAG_CHECK_INTERVAL = REPLICA_PREFIX + ".lag-check-interval";
+
+    /**
+     * Creates the connection pool of the primary database, which serves every read-write transaction.
+     *
+     * @param properties The {@code spring.datasource} properties.
+     * @return The primary pool.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Creates the connection pool of the replica, which serves read-only transactions.
+     *
+     * @param environment The environment holding the replica properties.
+     * @return The replica pool.
+     */
+    @Bean
+    @ConfigurationProperties(REPLICA_PREFIX + ".hikari")
+    public HikariDataSource readDataSource(Environment environment) {
+        DataSourceProperties properties = Binder.get(environment).bind(REPLICA_PREFIX, DataSourceProperties.class).get();
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Creates the tracker of the replica lag.
+     *
+     * @param writeDataSource The primary pool.
+     * @param readDataSource  The replica pool.
+     * @param checkInterval   The minimum time between two checks of a lagging replica, one second by default.
+     * @return The tracker.
+     */
+    @Bean
+    public ReplicaLagTracker replicaLagTracker(@Qualifier(WRITE_DATA_SOURCE) DataSource writeDataSource,
+                                               @Qualifier(READ_DATA_SOURCE) DataSource readDataSource,
+                                               @Value("${" + LAG_CHECK_INTERVAL + ":1s}") Duration checkInterval) {
+        return new ReplicaLagTracker(writeDataSource, readDataSource, checkInterval);
+    }
+
+    /**
+     * Creates the data source used by JPA and the rest of the application.
+     *
+     * @param writeDataSource   The primary pool.
+     * @param readDataSource    The replica pool.
+     * @param replicaLagTracker The tracker of the replica lag.
+     * @return A data source choosing between both pools by the read-only flag of the connection and the replica lag.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier(WRITE_DATA_SOURCE) DataSource writeDataSource,
+                                 @Qualifier(READ_DATA_SOURCE) DataSource readDataSource,
+                                 ReplicaLagTracker replicaLagTracker) {
+        AbstractRoutingDataSource readOnlyDataSource = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return replicaLagTracker.replicaCaughtUp();
+            }
+        };
+        readOnlyDataSource.setTargetDataSources(Map.of(true, readDataSource, false, writeDataSource));
+        readOnlyDataSource.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+        dataSource.setReadOnlyDataSource(readOnlyDataSource);
+        return dataSource;
+    }
+}
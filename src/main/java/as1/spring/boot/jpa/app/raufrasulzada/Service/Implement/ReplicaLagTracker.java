@@ -0,0 +1,114 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CoursesChangedEvent;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentsChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells whether the read replica has caught up with the writes this instance knows of.
+ * <p>
+ * Every committed write, and every write of another instance noticed through the data versions, marks the replica
+ * as lagging. It has caught up again once each of its {@code data_versions} rows is at least as new as on the primary,
+ * which is checked at most once per {@code spring.datasource.replica.lag-check-interval} while it lags. Until then,
+ * reads are served by the primary, so neither a read after a write nor the caches it fills can see older data.
+ */
+public class ReplicaLagTracker {
+
+    private static final String VERSIONS = "SELECT name, version FROM data_versions";
+
+    private final JdbcTemplate primary;
+
+    private final JdbcTemplate replica;
+
+    private final long checkIntervalNanos;
+
+    // Starts with a write, so the replica is checked before it serves the first read
+    private final AtomicLong writes = new AtomicLong(1);
+
+    private final AtomicLong caughtUpTo = new AtomicLong();
+
+    private final AtomicLong nextCheck = new AtomicLong(System.nanoTime());
+
+    /**
+     * Creates a tracker comparing the data versions of both databases.
+     *
+     * @param writeDataSource The primary pool.
+     * @param readDataSource  The replica pool.
+     * @param checkInterval   The minimum time between two checks of a lagging replica.
+     */
+    public ReplicaLagTracker(DataSource writeDataSource, DataSource readDataSource, Duration checkInterval) {
+        this.primary = new JdbcTemplate(writeDataSource);
+        this.replica = new JdbcTemplate(readDataSource);
+        this.checkIntervalNanos = checkInterval.toNanos();
+    }
+
+    /**
+     * Marks the replica as lagging once a student write has been committed, before the caches it clears can be refilled.
+     *
+     * @param event The event of the write.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStudentsChanged(StudentsChangedEvent event) {
+        writes.incrementAndGet();
+    }
+
+    /**
+     * Marks the replica as lagging once a course write has been committed, before the caches it clears can be refilled.
+     *
+     * @param event The event of the write.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCoursesChanged(CoursesChangedEvent event) {
+        writes.incrementAndGet();
+    }
+
+    /**
+     * Tells whether the replica has every write this instance knows of, checking it again if it lagged and the check
+     * interval has passed.
+     *
+     * @return Whether reads can be served by the replica.
+     */
+    public boolean replicaCaughtUp() {
+        long written = writes.get();
+        if (written <= caughtUpTo.get()) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long next = nextCheck.get();
+        if (now - next < 0 || !nextCheck.compareAndSet(next, now + checkIntervalNanos)) {
+            return false;
+        }
+        try {
+            // The primary is read first, so it holds at least the writes counted above
+            Map<String, Long> primaryVersions = versions(primary);
+            Map<String, Long> replicaVersions = versions(replica);
+            if (primaryVersions.entrySet().stream().allMatch(version -> replicaVersions.getOrDefault(version.getKey(), Long.MIN_VALUE) >= version.getValue())) {
+                // Writes committed since the primary was read may not have reached the replica yet
+                return writes.get() <= caughtUpTo.accumulateAndGet(written, Math::max);
+            }
+        } catch (DataAccessException e) {
+            // A replica that cannot be read, or has no schema yet, lags as well
+        }
+        return false;
+    }
+
+    private static Map<String, Long> versions(JdbcTemplate jdbcTemplate) {
+        Map<String, Long> versions = new HashMap<>();
+        jdbcTemplate.query(VERSIONS, row -> {
+            versions.put(row.getString("name"), row.getLong("version"));
+        });
+        return versions;
+    }
+}
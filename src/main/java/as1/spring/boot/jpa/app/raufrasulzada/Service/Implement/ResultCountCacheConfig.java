@@ -0,0 +1,33 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Registers the cache of listing totals, which expires much sooner than the other caches.
+ * <p>
+ * A total is only used to render the link to the last page, so a slightly stale value is acceptable,
+ * and every committed write clears the cache anyway (see {@link SearchResultInvalidation}).
+ */
+@Configuration
+public class ResultCountCacheConfig {
+
+    /**
+     * Adds the result count cache to the Caffeine cache manager.
+     *
+     * @param expireAfterWrite How long a total is kept after it was counted.
+     * @return The customizer registering the cache.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> resultCountCacheCustomizer(
+            @Value("${cache.result-counts.expire-after-write:30s}") Duration expireAfterWrite) {
+        return cacheManager -> cacheManager.registerCustomCache(ServiceImp.RESULT_COUNTS_CACHE,
+                Caffeine.newBuilder().maximumSize(1000).expireAfterWrite(expireAfterWrite).recordStats().build());
+    }
+}
@@ -0,0 +1,72 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Registers the caches of search results and publishes their hit ratios.
+ * <p>
+ * A cached search result is the list of IDs on one page of a filtered, sorted listing plus the total,
+ * so entries stay small and the entities themselves are still read fresh (see {@link ServiceImp}).
+ * The caches are cleared by {@link SearchResultInvalidation} whenever a write changes the data they were read from,
+ * and their hit ratios are published as the {@value #HIT_RATIO_GAUGE} gauge, tagged with the cache name.
+ */
+@Configuration
+public class SearchResultCacheConfig {
+
+    static final String HIT_RATIO_GAUGE = "cache.search.hit.ratio";
+
+    private static final List<String> CACHE_NAMES = List.of(ServiceImp.STUDENT_SEARCHES_CACHE,
+            ServiceImp.STUDENT_SEARCHES_BY_COURSE_CACHE, ServiceImp.COURSE_SEARCHES_CACHE);
+
+    /**
+     * Adds the search result caches to the Caffeine cache manager.
+     *
+     * @param maximumSize      The maximum number of results kept per cache.
+     * @param expireAfterWrite How long a result is kept when no write clears it first.
+     * @return The customizer registering the caches.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> searchResultCacheCustomizer(
+            @Value("${cache.search-results.maximum-size:10000}") long maximumSize,
+            @Value("${cache.search-results.expire-after-write:10m}") Duration expireAfterWrite) {
+        return cacheManager -> CACHE_NAMES.forEach(name -> cacheManager.registerCustomCache(name,
+                Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).recordStats().build()));
+    }
+
+    /**
+     * Publishes the hit ratio of every search result cache.
+     *
+     * @param cacheManager The cache manager holding the caches.
+     * @return The binder registering the gauges.
+     */
+    @Bean
+    public MeterBinder searchResultCacheMetrics(CacheManager cacheManager) {
+        return registry -> CACHE_NAMES.forEach(name -> Gauge.builder(HIT_RATIO_GAUGE, cacheManager, manager -> hitRatio(manager, name))
+                .tag("cache", name)
+                .description("The share of searches answered by the search result cache")
+                .register(registry));
+    }
+
+    /**
+     * Reads the hit ratio of a cache from its statistics. Caffeine reports 1 while a cache has not been used.
+     *
+     * @param cacheManager The cache manager holding the cache.
+     * @param cacheName    The name of the cache.
+     * @return The share of lookups that were hits, or NaN if the cache keeps no statistics.
+     */
+    private static double hitRatio(CacheManager cacheManager, String cacheName) {
+        return cacheManager.getCache(cacheName) instanceof CaffeineCache cache ? cache.getNativeCache().stats().hitRate() : Double.NaN;
+    }
+}
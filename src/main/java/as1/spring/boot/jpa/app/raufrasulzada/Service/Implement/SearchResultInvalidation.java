@@ -0,0 +1,68 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CoursesChangedEvent;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentsChangedEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clears the cached search results and listing totals a write can have changed, once the write has been committed.
+ * <p>
+ * Student writes can change any student search. Course writes change the course searches and, by renaming
+ * a course or removing its enrollments, the student searches filtering by course, but no other student search.
+ * Either kind clears the listing totals. Writes outside a transaction clear the caches right away.
+ * <p>
+ * Every clear starts a new generation of the caches it clears, so that a search that ran while the write committed
+ * can tell and does not cache a result the write may have changed.
+ */
+@Component
+public class SearchResultInvalidation {
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the current generation of a search result cache.
+     *
+     * @param cacheName The name of the cache.
+     * @return The number of times the cache has been cleared.
+     */
+    public long generation(String cacheName) {
+        return generations.computeIfAbsent(cacheName, name -> new AtomicLong()).get();
+    }
+
+    /**
+     * Clears the student search results and the listing totals.
+     *
+     * @param event The event of the write.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = {ServiceImp.STUDENT_SEARCHES_CACHE, ServiceImp.STUDENT_SEARCHES_BY_COURSE_CACHE,
+            ServiceImp.RESULT_COUNTS_CACHE}, allEntries = true)
+    public void onStudentsChanged(StudentsChangedEvent event) {
+        nextGeneration(ServiceImp.STUDENT_SEARCHES_CACHE, ServiceImp.STUDENT_SEARCHES_BY_COURSE_CACHE);
+    }
+
+    /**
+     * Clears the course search results, the student search results filtering by course and the listing totals.
+     *
+     * @param event The event of the write.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = {ServiceImp.COURSE_SEARCHES_CACHE, ServiceImp.STUDENT_SEARCHES_BY_COURSE_CACHE,
+            ServiceImp.RESULT_COUNTS_CACHE}, allEntries = true)
+    public void onCoursesChanged(CoursesChangedEvent event) {
+        nextGeneration(ServiceImp.COURSE_SEARCHES_CACHE, ServiceImp.STUDENT_SEARCHES_BY_COURSE_CACHE);
+    }
+
+    // Runs before the caches are cleared, so a result put after the clear is always checked against the new generation
+    private void nextGeneration(String... cacheNames) {
+        for (String cacheName : cacheNames) {
+            generations.computeIfAbsent(cacheName, name -> new AtomicLong()).incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ObjectUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+
+/**
+ * Provides the JCache manager holding the Hibernate second-level cache regions.
+ * <p>
+ * JCache hands out one manager per URI and class loader for the whole JVM, so every application context,
+ * such as the test contexts running against their own databases, gets a manager of its own here instead
+ * of sharing cached rows through the default one. The regions are configured in {@code application.conf}.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    /**
+     * Creates the cache manager of this application context.
+     *
+     * @return A Caffeine cache manager configured from {@code application.conf}, closed with the context.
+     */
+    @Bean
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        URI uri = URI.create(provider.getDefaultURI() + "#" + ObjectUtils.getIdentityHexString(this));
+        return provider.getCacheManager(uri, provider.getDefaultClassLoader());
+    }
+
+    /**
+     * Makes Hibernate create its regions in the cache manager of this application context.
+     *
+     * @param hibernateCacheManager The cache manager of this application context.
+     * @return The customizer passing the cache manager to Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -3,33 +3,116 @@ package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
 import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
 import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
 import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseSpecifications;
 import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentSpecifications;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CourseOption;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CourseSummary;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CoursesChangedEvent;
 import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.KeysetCursor;
 import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
-import jakarta.transaction.Transactional;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentFilter;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentSummary;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentsChangedEvent;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.UnknownCourseException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Tuple;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.util.Streamable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the {@link StdService} and {@link CrService} interfaces.
  * Handles CRUD operations for students and courses.
+ * <p>
+ * Every method is timed as {@value MetricsConfig#SERVICE_TIMER}, tagged with its class and method name.
+ * Calls answered by a cache never reach this class, so they only show up in the cache metrics.
+ * <p>
+ * Methods run in read-only transactions unless they are annotated as writes: Hibernate then skips
+ * flushing and loads entities read-only, without the snapshots dirty checking needs, and the connection
+ * is flagged read-only, so a configured replica can serve it (see {@link ReadReplicaConfig}).
+ * <p>
+ * Paginated searches cache the IDs on the page and the total per filter, sort and page
+ * (see {@link SearchResultCacheConfig}). Writes publish a {@link StudentsChangedEvent} or
+ * {@link CoursesChangedEvent}, which clears the results they can have changed once committed;
+ * a search that ran while such a write committed does not cache its result.
  */
-@Transactional
+@Timed(MetricsConfig.SERVICE_TIMER)
+@Transactional(readOnly = true)
 @Service
 @Data
 @RequiredArgsConstructor
 public class ServiceImp implements StdService, CrService {
 
+    static final String DEPARTMENTS_CACHE = "departments";
+
+    static final String RESULT_COUNTS_CACHE = "resultCounts";
+
+    static final String STUDENT_SEARCHES_CACHE = "studentSearches";
+
+    static final String STUDENT_SEARCHES_BY_COURSE_CACHE = "studentSearchesByCourse";
+
+    static final String COURSE_SEARCHES_CACHE = "courseSearches";
+
+    static final String STUDENT_SEARCH_TIMER = "students.search";
+
     private final StudentRepo studentRepo;
 
     private final CourseRepo courseRepo;
 
+    private final CourseNameIndex courseNameIndex;
+
+    private final CacheManager cacheManager;
+
+    private final SearchResultInvalidation searchResultInvalidation;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * The IDs on one page of a search, in order, and the total number of results.
+     *
+     * @param ids   The IDs of the entities on the page.
+     * @param total The number of entities matching the search.
+     */
+    private record SearchResult(List<Long> ids, long total) {
+    }
+
     /**
      * Retrieves all courses.
      *
@@ -40,6 +123,31 @@ public class ServiceImp implements StdService, CrService {
         return courseRepo.findAll();
     }
 
+    /**
+     * Retrieves the ID and name of every course, ordered by ID.
+     * The options are not cached here but per catalog version by the course dropdowns.
+     *
+     * @return A list of course options.
+     */
+    @Override
+    public List<CourseOption> retrieveCourseOptions() {
+        return courseRepo.findCourseOptionRows().stream()
+                .map(row -> new CourseOption(row.getId(), row.getCourseName()))
+                .toList();
+    }
+
+    /**
+     * Retrieves the distinct departments of all courses.
+     * The list is cached until a course is saved, updated or deleted.
+     *
+     * @return A list of department names.
+     */
+    @Override
+    @Cacheable(DEPARTMENTS_CACHE)
+    public List<String> retrieveAllDepartments() {
+        return courseRepo.findDistinctDepartments();
+    }
+
     /**
      * Saves a student.
      *
@@ -47,7 +155,10 @@ public class ServiceImp implements StdService, CrService {
      * @return The saved student.
      */
     @Override
+    @Transactional
     public Student saveStudent(Student student) {
+        attachCourses(student);
+        eventPublisher.publishEvent(new StudentsChangedEvent());
         return studentRepo.save(student);
     }
 
@@ -58,52 +169,100 @@ public class ServiceImp implements StdService, CrService {
      * @return The saved course.
      */
     @Override
+    @Transactional
+    @EvictsCourseCatalog
     public Course saveCourse(Course course) {
-        return courseRepo.save(course);
+        Course saved = courseRepo.save(course);
+        eventPublisher.publishEvent(CoursesChangedEvent.saved(saved.getId(), saved.getCourseName()));
+        return saved;
     }
 
      /**
-     * Retrieves a student by ID.
+     * Retrieves a student by ID, with its courses.
      *
      * @param id The ID of the student to retrieve.
      * @return The retrieved student.
      */
     @Override
     public Student retrieveStudentById(Long id) {
-        return studentRepo.findById(id).get();
+        return studentRepo.findWithCoursesById(id).get();
     }
 
     /**
     * Retrieves a course by ID.
+    * A cached course is read from the second-level cache without any query, as a copy of its own.
     *
     * @param id The ID of the course to retrieve.
     * @return The retrieved course.
     */
     @Override
     public Course retrieveCourseById(Long id) {
-        return courseRepo.findById(id).get();
+        return courseRepo.findById(id).orElseThrow(() -> new UnknownCourseException(List.of(id)));
+    }
+
+    /**
+    * Retrieves several courses by ID with one IN query.
+    *
+    * @param ids The IDs of the courses to retrieve.
+    * @return The retrieved courses.
+    */
+    @Override
+    public Set<Course> retrieveCoursesByIds(Collection<Long> ids) {
+        Set<Long> requestedIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        List<Course> courses = courseRepo.findAllById(requestedIds);
+        if (courses.size() != requestedIds.size()) {
+            Set<Long> unknownIds = new TreeSet<>(requestedIds);
+            courses.forEach(course -> unknownIds.remove(course.getId()));
+            throw new UnknownCourseException(unknownIds);
+        }
+        return new HashSet<>(courses);
     }
 
     /**
     * Updates a student.
+    * The changes are copied onto the student loaded in this transaction, so only the enrollments
+    * that changed are written, instead of merging the detached student and cascading into its courses.
     *
     * @param student The student to update.
     * @return The updated student.
     */
     @Override
+    @Transactional
     public Student updateStudent(Student student) {
-        return studentRepo.save(student);
+        attachCourses(student);
+        eventPublisher.publishEvent(new StudentsChangedEvent());
+        return studentRepo.findWithCoursesById(student.getId())
+                .map(managed -> {
+                    managed.setFirstName(student.getFirstName());
+                    managed.setLastName(student.getLastName());
+                    managed.getCourses().retainAll(student.getCourses());
+                    managed.getCourses().addAll(student.getCourses());
+                    return managed;
+                })
+                .orElseGet(() -> studentRepo.save(student));
     }
 
     /**
      * Updates a course.
+     * The changes are copied onto the course loaded in this transaction; merging the detached course
+     * instead would cascade into every enrolled student and load their courses one by one.
     *
     * @param course The course to update.
     * @return The updated course.
     */
     @Override
+    @Transactional
+    @EvictsCourseCatalog
     public Course updateCourse(Course course) {
-        return courseRepo.save(course);
+        Course saved = courseRepo.findById(course.getId())
+                .map(managed -> {
+                    managed.setCourseName(course.getCourseName());
+                    managed.setDepartment(course.getDepartment());
+                    return managed;
+                })
+                .orElseGet(() -> courseRepo.save(course));
+        eventPublisher.publishEvent(CoursesChangedEvent.saved(saved.getId(), saved.getCourseName()));
+        return saved;
     }
 
     /**
@@ -112,19 +271,25 @@ public class ServiceImp implements StdService, CrService {
     * @param id The ID of the student to delete.
     */
     @Override
+    @Transactional
     public void deleteStudentById(Long id) {
         studentRepo.deleteById(id);
+        eventPublisher.publishEvent(new StudentsChangedEvent());
     }
 
     /**
     * Deletes a course by ID.
+    * Its enrollments are removed first, in the same transaction, which counts as a student write as well.
     *
     * @param id The ID of the course to delete.
     */
     @Override
+    @Transactional
+    @EvictsCourseCatalog
     public void deleteCourseById(Long id) {
-        courseRepo.deleteById(id);
         updateStudentsWhenCourseDeleted(id);
+        courseRepo.deleteById(id);
+        eventPublisher.publishEvent(CoursesChangedEvent.deleted(id));
     }
 
     /**
@@ -157,6 +322,7 @@ public class ServiceImp implements StdService, CrService {
 
     /**
     * Finds a course by name.
+    * The lookup is answered by the query cache of the second-level cache while no course changes.
     *
     * @param courseName The name of the course to search for.
     * @return The found course or null if not found.
@@ -167,132 +333,157 @@ public class ServiceImp implements StdService, CrService {
     }
 
     /**
-    * Retrieves all students with courses paginated.
+    * Retrieves the students matching a filter with courses paginated.
+    * The page itself is read as a slice; the total is only counted when more rows follow,
+    * and that count is cached per filter until the next write. The IDs on the page are cached
+    * per filter, sort and page, so repeating a search only reads the students by ID.
     *
+    * @param filter   The filters to apply.
     * @param pageable The pagination information.
     * @return A page of students with courses.
     */
     @Override
-    public Page<Student> retrieveAllStudentsWithCoursesPaginated(Pageable pageable) {
-        return studentRepo.findAll(pageable);
+    public Page<Student> retrieveStudents(StudentFilter filter, Pageable pageable) {
+        Pageable stablePageable = stablePageable(pageable);
+        SimpleKey key = new SimpleKey("students", normalize(filter.getFirstName()), normalize(filter.getLastName()),
+                StringUtils.hasText(filter.getCourseName()) ? CourseNameIndex.normalize(filter.getCourseName()) : null);
+        String cacheName = StringUtils.hasText(filter.getCourseName()) ? STUDENT_SEARCHES_BY_COURSE_CACHE : STUDENT_SEARCHES_CACHE;
+        return timeSearch(filter, () -> cachedSearch(cacheName, new SimpleKey(key, stablePageable), stablePageable, () -> {
+            Specification<Student> specification = toSpecification(filter);
+            return toPage(fetchCourses(studentRepo.findSlice(specification, stablePageable)), key, () -> studentRepo.count(specification));
+        }, Student::getId, ids -> fetchCourses(Streamable.of(studentRepo.findAllInOrder(ids))).toList()));
     }
 
     /**
-    * Retrieves all courses paginated.
+    * Retrieves a slice of the students matching a filter with courses, without any count query.
+    * The filters are combined into a single query, and the courses of the slice come from the
+    * second-level cache or one extra batch query.
     *
+    * @param filter   The filters to apply.
     * @param pageable The pagination information.
-    * @return A page of courses.
+    * @return A slice of students with courses.
     */
     @Override
-    public Page<Course> retrieveAllCoursesPaginated(Pageable pageable) {
-        return courseRepo.findAll(pageable);
+    public Slice<Student> retrieveStudentSlice(StudentFilter filter, Pageable pageable) {
+        return timeSearch(filter, () -> fetchCourses(studentRepo.findSlice(toSpecification(filter), stablePageable(pageable))));
     }
 
     /**
-    * Updates students when a course is deleted.
+    * Retrieves the students matching a filter with courses using keyset pagination.
     *
-    * @param courseId The ID of the course being deleted.
+    * @param filter The filters to apply.
+    * @param after  The cursor of the last student already shown.
+    * @param sort   The sort order.
+    * @param limit  The maximum number of students to return.
+    * @return A window of students with courses.
     */
     @Override
-    public void updateStudentsWhenCourseDeleted(Long courseId) {
-        List<Student> students = studentRepo.findByCoursesId(courseId);
-        for (Student student : students) {
-            student.getCourses().removeIf(course -> course.getId().equals(courseId));
-            studentRepo.save(student);
-        }
+    public Window<Student> retrieveStudentsAfter(StudentFilter filter, String after, Sort sort, int limit) {
+        ScrollPosition position = KeysetCursor.decode(after, sort);
+        return timeSearch(filter, () -> fetchCourses(studentRepo.findBy(toSpecification(filter),
+                query -> query.sortBy(KeysetCursor.withIdTiebreaker(sort)).limit(limit).scroll(position))));
     }
 
     /**
-    * Retrieves students by first name and last name paginated.
+    * Retrieves the columns of the students matching a filter, with their courses, using keyset pagination.
+    * The enrollments of the whole window are read with one query and grouped by student.
     *
-    * @param firstName The first name of the student.
-    * @param lastName  The last name of the student.
-    * @param pageable  The pagination information.
-    * @return A page of students matching the first name and last name.
+    * @param filter The filters to apply.
+    * @param after  The cursor of the last student already returned.
+    * @param sort   The sort order.
+    * @param limit  The maximum number of students to return.
+    * @return A window of student summaries.
     */
     @Override
-    public Page<Student> retrieveStudentsByFirstNameAndLastName(String firstName, String lastName, Pageable pageable) {
-        return studentRepo.findByFirstNameAndLastName(firstName, lastName, pageable);
+    public Window<StudentSummary> retrieveStudentSummaries(StudentFilter filter, String after, Sort sort, int limit) {
+        ScrollPosition position = KeysetCursor.decode(after, sort);
+        return timeSearch(filter, () -> {
+            Window<Tuple> rows = studentRepo.scrollColumns(toSpecification(filter), position,
+                    KeysetCursor.withIdTiebreaker(sort), limit, "id", "firstName", "lastName");
+            Map<Long, List<CourseSummary>> courses = rows.isEmpty() ? Map.of() : studentRepo
+                    .findEnrollmentRows(rows.map(row -> row.get("id", Long.class)).toList()).stream()
+                    .collect(Collectors.groupingBy(StudentRepo.EnrollmentRow::getStudentId, Collectors.mapping(
+                            row -> new CourseSummary(row.getCourseId(), row.getCourseName(), row.getDepartment()),
+                            Collectors.toList())));
+            return rows.map(row -> new StudentSummary(row.get("id", Long.class), row.get("firstName", String.class),
+                    row.get("lastName", String.class), courses.getOrDefault(row.get("id", Long.class), List.of())));
+        });
     }
 
     /**
-    * Retrieves students by first name paginated.
+    * Retrieves all courses paginated.
     *
-    * @param firstName The first name of the student.
-    * @param pageable  The pagination information.
-    * @return A page of students matching the first name.
-     */
+    * @param pageable The pagination information.
+    * @return A page of courses.
+    */
     @Override
-    public Page<Student> retrieveStudentsByFirstName(String firstName, Pageable pageable) {
-        return studentRepo.findByFirstName(firstName, pageable);
+    public Page<Course> retrieveAllCoursesPaginated(Pageable pageable) {
+        SimpleKey key = new SimpleKey("courses");
+        return cachedCourseSearch(key, pageable, () -> toPage(courseRepo.findCoursesBy(pageable), key, courseRepo::count));
     }
 
     /**
-    * Retrieves students by last name paginated.
+    * Retrieves all courses using keyset pagination.
     *
-    * @param lastName  The last name of the student.
-    * @param pageable  The pagination information.
-    * @return A page of students matching the last name.
+    * @param after The cursor of the last course already shown.
+    * @param sort  The sort order.
+    * @param limit The maximum number of courses to return.
+    * @return A window of courses.
     */
     @Override
-    public Page<Student> retrieveStudentsByLastName(String lastName, Pageable pageable) {
-        return studentRepo.findByLastName(lastName, pageable);
+    public Window<Course> retrieveAllCoursesAfter(String after, Sort sort, int limit) {
+        return courseRepo.findCoursesBy(KeysetCursor.decode(after, sort), KeysetCursor.withIdTiebreaker(sort), Limit.of(limit));
     }
 
     /**
-    * Retrieves students by course name paginated.
-     *
-    * @param courseName The name of the course.
-    * @param pageable   The pagination information.
-    * @return A page of students enrolled in the specified course.
+    * Retrieves the columns of the courses matching the filters using keyset pagination.
+    * A course name is resolved to course IDs through the course name index first.
+    *
+    * @param courseName Text contained in the name of the course.
+    * @param department The department of the course.
+    * @param after      The cursor of the last course already returned.
+    * @param sort       The sort order.
+    * @param limit      The maximum number of courses to return.
+    * @return A window of course summaries.
     */
     @Override
-    public Page<Student> retrieveStudentsByCourseName(String courseName, Pageable pageable) {
-        if (StringUtils.isEmpty(courseName)) {
-            return studentRepo.findAll(pageable);
-        } else {
-            return studentRepo.findByCourseName(courseName, pageable);
+    public Window<CourseSummary> retrieveCourseSummaries(String courseName, String department, String after, Sort sort, int limit) {
+        List<Specification<Course>> specifications = new ArrayList<>();
+        if (StringUtils.hasText(courseName)) {
+            specifications.add(CourseSpecifications.hasIdIn(courseNameIndex.search(courseName)));
+        }
+        if (StringUtils.hasText(department)) {
+            specifications.add(CourseSpecifications.hasDepartment(department));
         }
+        return courseRepo.scrollColumns(Specification.allOf(specifications), KeysetCursor.decode(after, sort),
+                        KeysetCursor.withIdTiebreaker(sort), limit, "id", "courseName", "department")
+                .map(row -> new CourseSummary(row.get("id", Long.class), row.get("courseName", String.class),
+                        row.get("department", String.class)));
     }
 
     /**
-    * Retrieves students by first name, last name, and course name paginated.
+    * Updates students when a course is deleted.
+    * All enrollments in the course are removed with one bulk delete instead of loading and saving each student.
+    * Only the students change, so the course catalog stays cached.
     *
-    * @param firstName  The first name of the student.
-    * @param lastName   The last name of the student.
-    * @param courseName The name of the course.
-    * @param pageable   The pagination information.
-    * @return A page of students matching the first name, last name, and course name.
+    * @param courseId The ID of the course being deleted.
     */
     @Override
-    public Page<Student> retrieveStudentsByFirstNameLastNameAndCourseName(String firstName, String lastName, String courseName, Pageable pageable) {
-        return studentRepo.retrieveStudentsByFirstNameLastNameAndCourseName(firstName, lastName, courseName, pageable);
+    @Transactional
+    public void updateStudentsWhenCourseDeleted(Long courseId) {
+        studentRepo.deleteEnrollmentsByCourseId(courseId);
+        eventPublisher.publishEvent(new StudentsChangedEvent());
     }
 
     /**
-    * Retrieves students by first name and course name paginated.
+    * Finds the IDs of courses whose name contains the given text.
     *
-    * @param firstName  The first name of the student.
-    * @param courseName The name of the course.
-    * @param pageable   The pagination information.
-    * @return A page of students matching the first name and course name.
-    */
-    @Override
-    public Page<Student> retrieveStudentsByFirstNameAndCourseName(String firstName, String courseName, Pageable pageable) {
-        return studentRepo.retrieveStudentsByFirstNameAndCourseName(firstName, courseName, pageable);
-    }
-
-    /**
-    * Retrieves students by last name and course name paginated.
-     *
-    * @param lastName   The last name of the student.
-    * @param courseName The name of the course.
-    * @param pageable   The pagination information.
-    * @return A page of students matching the last name and course name.
+    * @param courseName The text to search for.
+    * @return The IDs of the matching courses.
     */
     @Override
-    public Page<Student> retrieveStudentsByLastNameAndCourseName(String lastName, String courseName, Pageable pageable) {
-        return studentRepo.retrieveStudentsByLastNameAndCourseName(lastName, courseName, pageable);
+    public List<Long> findCourseIdsByNameContaining(String courseName) {
+        return courseNameIndex.search(courseName);
     }
 
     /**
@@ -304,11 +495,15 @@ public class ServiceImp implements StdService, CrService {
     */
     @Override
     public Page<Course> retrieveCoursesByCourseName(String courseName, Pageable pageable) {
-        if (StringUtils.isEmpty(courseName)) {
-            return courseRepo.findAll(pageable);
-        } else {
-            return courseRepo.retrieveCoursesByCourseName(courseName, pageable);
+        if (!StringUtils.hasText(courseName)) {
+            return retrieveAllCoursesPaginated(pageable);
         }
+        // The index ignores surrounding blanks, so "Calc" and " Calc " share their cached results
+        SimpleKey key = new SimpleKey("coursesByName", CourseNameIndex.normalize(courseName));
+        return cachedCourseSearch(key, pageable, () -> {
+            List<Long> courseIds = courseNameIndex.search(courseName);
+            return toPage(courseRepo.findByIdIn(courseIds, pageable), key, () -> courseRepo.countByIdIn(courseIds));
+        });
     }
 
     /**
@@ -320,7 +515,10 @@ public class ServiceImp implements StdService, CrService {
      */
     @Override
     public Page<Course> retrieveCoursesByDepartment(String department, Pageable pageable) {
-        return courseRepo.retrieveCoursesByDepartment(department, pageable);
+        String normalizedDepartment = normalize(department);
+        SimpleKey key = new SimpleKey("coursesByDepartment", normalizedDepartment);
+        return cachedCourseSearch(key, pageable, () -> toPage(courseRepo.retrieveCoursesByDepartment(normalizedDepartment, pageable), key,
+                () -> courseRepo.countCoursesByDepartment(normalizedDepartment)));
     }
 
     /**
@@ -333,6 +531,157 @@ public class ServiceImp implements StdService, CrService {
     */
     @Override
     public Page<Course> retrieveCoursesByCourseNameAndDepartment(String courseName, String department, Pageable pageable) {
-        return courseRepo.retrieveCoursesByCourseNameAndDepartment(courseName, department, pageable);
+        String normalizedName = normalize(courseName);
+        String normalizedDepartment = normalize(department);
+        SimpleKey key = new SimpleKey("coursesByNameAndDepartment", normalizedName, normalizedDepartment);
+        return cachedCourseSearch(key, pageable, () -> toPage(courseRepo.retrieveCoursesByCourseNameAndDepartment(normalizedName, normalizedDepartment, pageable),
+                key, () -> courseRepo.countByCourseNameAndDepartment(normalizedName, normalizedDepartment)));
+    }
+
+    /**
+    * Replaces the courses of a student with courses loaded into the current persistence context, with one IN query.
+    * Courses read in an earlier transaction are detached, and linking them
+    * directly would make Hibernate try to persist or merge them; bare references would be initialized one
+    * by one as soon as they are hashed into the course set.
+    *
+    * @param student The student whose courses are attached.
+    */
+    private void attachCourses(Student student) {
+        List<Course> courses = courseRepo.findAllById(student.getCourses().stream().map(Course::getId).toList());
+        student.getCourses().clear();
+        student.getCourses().addAll(courses);
+    }
+
+    /**
+    * Runs a student search and times it as {@value #STUDENT_SEARCH_TIMER}, tagged with the combination
+    * of filters used, so the cost of each combination can be told apart.
+    *
+    * @param filter The filters of the search.
+    * @param search The search to run.
+    * @return The result of the search.
+    */
+    private <T> T timeSearch(StudentFilter filter, Supplier<T> search) {
+        return meterRegistry.timer(STUDENT_SEARCH_TIMER, "filters", filter.describe()).record(search);
+    }
+
+    /**
+    * Translates a student filter into a specification, skipping empty filters.
+    * A course name is resolved to course IDs through the course name index first.
+    *
+    * @param filter The filters to apply.
+    * @return The combined specification.
+    */
+    private Specification<Student> toSpecification(StudentFilter filter) {
+        List<Specification<Student>> specifications = new ArrayList<>();
+        if (StringUtils.hasText(filter.getFirstName())) {
+            specifications.add(StudentSpecifications.hasFirstName(normalize(filter.getFirstName())));
+        }
+        if (StringUtils.hasText(filter.getLastName())) {
+            specifications.add(StudentSpecifications.hasLastName(normalize(filter.getLastName())));
+        }
+        if (StringUtils.hasText(filter.getCourseName())) {
+            specifications.add(StudentSpecifications.enrolledInAny(courseNameIndex.search(filter.getCourseName())));
+        }
+        return Specification.allOf(specifications);
+    }
+
+    /**
+    * Adds the ID as a tiebreaker to the sort of a page request, so rows with equal sort values
+    * keep their order from one page to the next.
+    *
+    * @param pageable The pagination information.
+    * @return The same page with a stable sort.
+    */
+    private Pageable stablePageable(Pageable pageable) {
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                KeysetCursor.withIdTiebreaker(pageable.getSortOr(Sort.by("id"))));
+    }
+
+    /**
+    * Turns a slice into a page. When the slice is the last one the total follows from its offset
+    * and size; otherwise it is read from the result count cache, counting only on a miss.
+    *
+    * @param slice   The slice that was read.
+    * @param key     The cache key of the normalized filter.
+    * @param counter Counts every row matching the filter.
+    * @return A page with the content of the slice.
+    */
+    private <T> Page<T> toPage(Slice<T> slice, SimpleKey key, LongSupplier counter) {
+        long total;
+        if (!slice.hasNext() && (slice.hasContent() || slice.getNumber() == 0)) {
+            total = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        } else {
+            total = cacheManager.getCache(RESULT_COUNTS_CACHE).get(key, counter::getAsLong);
+        }
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
+    /**
+    * Runs a course search through the search result cache.
+    *
+    * @param key      The cache key of the normalized filter.
+    * @param pageable The pagination information.
+    * @param search   Runs the search.
+    * @return A page of courses.
+    */
+    private Page<Course> cachedCourseSearch(SimpleKey key, Pageable pageable, Supplier<Page<Course>> search) {
+        return cachedSearch(COURSE_SEARCHES_CACHE, new SimpleKey(key, pageable), pageable, search, Course::getId, courseRepo::findAllInOrder);
+    }
+
+    /**
+    * Answers a search from the search result cache, or runs it and caches the IDs on its page and its total.
+    * On a hit the entities are loaded by ID, in the cached order, instead of running the search again.
+    * A result is only cached while the generation of the cache is the one the search started in: a write
+    * committed meanwhile may have cleared the cache already, and the result may predate it.
+    *
+    * @param cacheName The name of the search result cache.
+    * @param key       The cache key of the normalized filter, sort and page.
+    * @param pageable  The pagination information.
+    * @param search    Runs the search.
+    * @param idOf      Reads the ID of an entity.
+    * @param loader    Loads entities by ID, in the order of the IDs.
+    * @return A page of entities.
+    */
+    private <T> Page<T> cachedSearch(String cacheName, SimpleKey key, Pageable pageable, Supplier<Page<T>> search,
+                                     Function<T, Long> idOf, Function<List<Long>, List<T>> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        SearchResult cached = cache.get(key, SearchResult.class);
+        if (cached != null) {
+            return new PageImpl<>(loader.apply(cached.ids()), pageable, cached.total());
+        }
+        long generation = searchResultInvalidation.generation(cacheName);
+        Page<T> page = search.get();
+        if (searchResultInvalidation.generation(cacheName) == generation) {
+            cache.put(key, new SearchResult(page.getContent().stream().map(idOf).toList(), page.getTotalElements()));
+            // A write committing between the check and the put clears the cache after its new generation
+            if (searchResultInvalidation.generation(cacheName) != generation) {
+                cache.evict(key);
+            }
+        }
+        return page;
+    }
+
+    /**
+    * Normalizes a filter value for the query and its cache key, trimming it and treating blank values like absent ones.
+    * Names and departments match exactly and course names case-sensitively, so their case is kept.
+    *
+    * @param value The filter value.
+    * @return The trimmed value, or null if it is blank.
+    */
+    private static String normalize(String value) {
+        return StringUtils.hasText(value) ? value.trim() : null;
+    }
+
+    /**
+    * Initializes the courses of the given students, so they can be read after the transaction without further queries.
+    * Course sets in the second-level cache are resolved without any query; the first set that is not cached
+    * loads the uncached sets of up to 100 students with one batch query.
+    *
+    * @param students The students of a page or window.
+    * @return The same students, with their courses initialized.
+    */
+    private <T extends Streamable<Student>> T fetchCourses(T students) {
+        students.forEach(student -> Hibernate.initialize(student.getCourses()));
+        return students;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.SqlBudgetExceededException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Checks the statements counted in a scope against a budget, and against the limit on repeated statements.
+ * <p>
+ * A violation is logged as a warning that lists every repeated statement with the code that issued it;
+ * with {@code sql-budget.fail-on-violation} set, which the tests do, it is thrown instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlBudget {
+
+    private final SqlBudgetProperties properties;
+
+    /**
+     * Checks a scope.
+     *
+     * @param scope  The scope, which may still be open.
+     * @param budget The number of statements the scope may issue.
+     * @throws SqlBudgetExceededException If the scope violated its budget and violations should fail.
+     */
+    public void check(SqlStatementCounter.Scope scope, int budget) {
+        check(scope, budget, properties.isFailOnViolation());
+    }
+
+    /**
+     * Checks a scope but only logs a violation, for checks that come too late to fail anything,
+     * such as after the response has been committed.
+     *
+     * @param scope  The scope, closed by {@link SqlStatementCounter#stop(SqlStatementCounter.Scope)}.
+     * @param budget The number of statements the scope may issue.
+     */
+    public void warn(SqlStatementCounter.Scope scope, int budget) {
+        check(scope, budget, false);
+    }
+
+    private void check(SqlStatementCounter.Scope scope, int budget, boolean failOnViolation) {
+        StringBuilder report = new StringBuilder();
+        if (scope.getStatements() > budget) {
+            report.append(String.format("%s issued %d SQL statements, budget is %d",
+                    scope.getName(), scope.getStatements(), budget));
+        }
+        for (Map.Entry<String, Integer> shape : scope.getShapes().entrySet()) {
+            if (shape.getValue() > properties.getRepeatedStatements()) {
+                if (report.isEmpty()) {
+                    report.append(String.format("%s repeated SQL statements", scope.getName()));
+                }
+                report.append(String.format("%n  possible N+1: ran %d times from %s: %s", shape.getValue(),
+                        scope.getCallSite(shape.getKey()).orElse("unknown"), shape.getKey()));
+            }
+        }
+        if (report.isEmpty()) {
+            return;
+        }
+        if (failOnViolation) {
+            throw new SqlBudgetExceededException(scope.getName(), scope.getStatements(), report.toString());
+        }
+        log.warn("{}", report);
+    }
+
+    /**
+     * @return The budget of a single service call.
+     */
+    public int perServiceCall() {
+        return properties.getPerServiceCall();
+    }
+
+    /**
+     * Finds the budget of a request.
+     *
+     * @param route The route pattern the request matched.
+     * @return The budget of the route.
+     */
+    public int forRoute(String route) {
+        return properties.forRoute(route);
+    }
+}
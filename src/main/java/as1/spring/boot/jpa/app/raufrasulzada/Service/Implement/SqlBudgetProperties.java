@@ -0,0 +1,51 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limits on the SQL statements a request or a service call may issue, bound from the {@code sql-budget.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "sql-budget")
+public class SqlBudgetProperties {
+
+    /**
+     * The number of statements a request may issue, unless its route has a budget of its own.
+     */
+    private int perRequest = 20;
+
+    /**
+     * Budgets of single routes, keyed by route pattern such as {@code /students/update/{id}}.
+     */
+    private Map<String, Integer> routes = new LinkedHashMap<>();
+
+    /**
+     * The number of statements a single service call may issue.
+     */
+    private int perServiceCall = 10;
+
+    /**
+     * How often a statement of the same shape may run within one request or service call before it is
+     * reported as an N+1 pattern.
+     */
+    private int repeatedStatements = 5;
+
+    /**
+     * Whether a violation fails the request or service call instead of only logging a warning.
+     */
+    private boolean failOnViolation = false;
+
+    /**
+     * Finds the budget of a route.
+     *
+     * @param route The route pattern.
+     * @return The route's own budget, or else the default request budget.
+     */
+    public int forRoute(String route) {
+        return routes.getOrDefault(route, perRequest);
+    }
+}
@@ -0,0 +1,171 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.io.Serial;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, per scope.
+ * <p>
+ * A scope, such as an HTTP request or a service call, is opened with {@link #start(String)} and closed
+ * with {@link #stop(Scope)}; scopes can be nested, and a statement counts towards every open scope.
+ * Statements are also grouped by shape, with IN lists collapsed, so a statement that runs again and
+ * again with different parameters - the signature of an N+1 pattern - can be reported with its call site.
+ * <p>
+ * Registered as Hibernate's statement inspector, so it sees every statement of the JPA layer,
+ * including lazy loads; statements issued directly through JDBC are not counted.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = new ThreadLocal<>();
+
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(\\s*,\\s*\\?)+\\)");
+
+    private static final String APPLICATION_PACKAGE = "as1.spring.boot.jpa.app.raufrasulzada";
+
+    /**
+     * Opens a scope on the current thread.
+     *
+     * @param name The name of the scope, used in reports.
+     * @return The scope, to be passed to {@link #stop(Scope)}.
+     */
+    public Scope start(String name) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        Scope scope = new Scope(name);
+        scopes.push(scope);
+        return scope;
+    }
+
+    /**
+     * Closes a scope on the current thread. Its counts stay readable.
+     *
+     * @param scope The scope returned by {@link #start(String)}.
+     */
+    public void stop(Scope scope) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes != null) {
+            scopes.remove(scope);
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+
+    /**
+     * Counts a statement towards every scope open on the current thread.
+     *
+     * @param sql The SQL of the statement.
+     * @return The SQL, unchanged.
+     */
+    @Override
+    public String inspect(String sql) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes != null) {
+            String shape = IN_LIST.matcher(sql).replaceAll("(?)");
+            for (Scope scope : scopes) {
+                scope.record(shape);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * The statements counted within one scope.
+     */
+    public static final class Scope {
+
+        private final String name;
+
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+
+        private final Map<String, String> callSites = new HashMap<>();
+
+        private int statements;
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        private void record(String shape) {
+            statements++;
+            int count = shapes.merge(shape, 1, Integer::sum);
+            if (count == 2) {
+                // Only walk the stack once a shape repeats, so plain statements stay cheap to count
+                callSites.put(shape, callSite());
+            }
+        }
+
+        /**
+         * @return The name of the scope.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The number of statements counted in the scope.
+         */
+        public int getStatements() {
+            return statements;
+        }
+
+        /**
+         * @return The number of times each statement shape ran, in order of first appearance.
+         */
+        public Map<String, Integer> getShapes() {
+            return Collections.unmodifiableMap(shapes);
+        }
+
+        /**
+         * Finds the code that ran a statement shape for the second time.
+         *
+         * @param shape A statement shape of this scope.
+         * @return The first application frame, or else the first frame outside the persistence stack,
+         * for shapes that ran more than once.
+         */
+        public Optional<String> getCallSite(String shape) {
+            return Optional.ofNullable(callSites.get(shape));
+        }
+
+        private static String callSite() {
+            return StackWalker.getInstance().walk(frames -> {
+                Optional<StackWalker.StackFrame> outside = Optional.empty();
+                for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                    String className = frame.getClassName();
+                    if (className.startsWith(APPLICATION_PACKAGE) && !className.equals(SqlStatementCounter.class.getName())
+                            && !className.startsWith(Scope.class.getName())) {
+                        return frame.toString();
+                    }
+                    if (outside.isEmpty() && !isPersistenceFrame(className)) {
+                        outside = Optional.of(frame);
+                    }
+                }
+                return outside.map(Object::toString).orElse("unknown");
+            });
+        }
+
+        private static boolean isPersistenceFrame(String className) {
+            return className.startsWith("org.hibernate.") || className.startsWith("org.h2.")
+                    || className.startsWith("com.zaxxer.") || className.startsWith("java.")
+                    || className.startsWith("jdk.") || className.startsWith("org.springframework.orm.")
+                    || className.startsWith("org.springframework.data.") || className.startsWith(SqlStatementCounter.class.getName());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements of every call to a {@code @Timed} service class, records them as the
+ * {@value #STATEMENTS_SUMMARY} distribution summary and checks them against the per-call budget.
+ * <p>
+ * Ordered right after the cache interceptor and before the transaction, so cache hits are not counted
+ * and the statements of the commit are. The import and export services stream whole datasets and are
+ * deliberately left out.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class StatementBudgetAspect {
+
+    static final String STATEMENTS_SUMMARY = "service.method.statements";
+
+    private final SqlStatementCounter statementCounter;
+
+    private final SqlBudget sqlBudget;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Counts the statements of a call to a service implementation.
+     *
+     * @param call The service call.
+     * @return The result of the call.
+     * @throws Throwable The exception thrown by the call.
+     */
+    @Around("@within(io.micrometer.core.annotation.Timed)")
+    public Object countStatements(ProceedingJoinPoint call) throws Throwable {
+        String className = call.getSignature().getDeclaringType().getSimpleName();
+        String method = call.getSignature().getName();
+        SqlStatementCounter.Scope scope = statementCounter.start(className + "." + method);
+        Object result;
+        try {
+            result = call.proceed();
+        } finally {
+            statementCounter.stop(scope);
+            DistributionSummary.builder(STATEMENTS_SUMMARY)
+                    .baseUnit("statements")
+                    .tag("class", className)
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(scope.getStatements());
+        }
+        sqlBudget.check(scope, sqlBudget.perServiceCall());
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service.Implement;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.ConcurrencyLimitingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Limits concurrent database access when requests are handled on virtual threads.
+ * <p>
+ * Spring Boot runs Tomcat and its task executors on virtual threads when {@code spring.threads.virtual.enabled}
+ * is set on Java 21, as the {@code virtual-threads} profile does. The connection pools of the application, the
+ * {@code dataSource} one or the primary and replica pools of {@link ReadReplicaConfig}, are then wrapped in a
+ * {@link ConcurrencyLimitingDataSource} with as many permits as the connection pool has connections,
+ * and the number of threads waiting for one is published as the {@value #WAITING_GAUGE} gauge.
+ * Proxies in front of the pools and data sources of other libraries are left alone.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    static final String WAITING_GAUGE = "jdbc.connections.waiting";
+
+    private static final Set<String> POOLS = Set.of("dataSource", ReadReplicaConfig.WRITE_DATA_SOURCE, ReadReplicaConfig.READ_DATA_SOURCE);
+
+    /**
+     * Wraps the connection pools of the application in a {@link ConcurrencyLimitingDataSource}.
+     *
+     * @param permits        The number of connections that may be in use at the same time,
+     *                       by default the maximum size of the connection pool.
+     * @param acquireTimeout How long a request waits for a connection before failing.
+     * @return The post processor wrapping the data sources.
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(
+            @Value("${db-concurrency.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${db-concurrency.acquire-timeout:30s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // With a replica, the dataSource bean is the proxy in front of the pools
+                if (POOLS.contains(beanName) && bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                    return new ConcurrencyLimitingDataSource(dataSource, permits, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Publishes the number of threads waiting for a database connection, tagged with the name of the data source.
+     *
+     * @param dataSources The data sources by bean name, the pooled ones limited by the post processor.
+     * @return The binder registering the gauges.
+     */
+    @Bean
+    public MeterBinder connectionWaitMetrics(Map<String, DataSource> dataSources) {
+        return registry -> dataSources.forEach((name, dataSource) -> {
+            if (dataSource instanceof ConcurrencyLimitingDataSource limited) {
+                Gauge.builder(WAITING_GAUGE, limited, ConcurrencyLimitingDataSource::getWaitingThreads)
+                        .description("Threads waiting for a database connection permit")
+                        .tag("name", name)
+                        .register(registry);
+            }
+        });
+    }
+}
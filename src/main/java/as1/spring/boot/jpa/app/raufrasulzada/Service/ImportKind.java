@@ -0,0 +1,35 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import java.util.Locale;
+
+/**
+ * The kinds of records that can be bulk imported.
+ */
+public enum ImportKind {
+
+    /**
+     * Students with the columns {@code firstName} and {@code lastName}.
+     */
+    STUDENTS,
+
+    /**
+     * Courses with the columns {@code courseName} and {@code department}.
+     */
+    COURSES,
+
+    /**
+     * Enrollments with the columns {@code studentId} and {@code courseName}.
+     */
+    ENROLLMENTS;
+
+    /**
+     * Resolves a kind from its case-insensitive name.
+     *
+     * @param name The name of the kind, such as "students".
+     * @return The matching kind.
+     * @throws IllegalArgumentException If no kind has the given name.
+     */
+    public static ImportKind fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
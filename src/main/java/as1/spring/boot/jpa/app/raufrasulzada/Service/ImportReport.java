@@ -0,0 +1,98 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a bulk import: how many rows were read and imported, how fast, and which rows failed.
+ * <p>
+ * Only the first {@value #MAX_REPORTED_ERRORS} row errors are kept so that a bad file cannot
+ * make the report grow without bound; {@link #getFailedRows()} still counts all of them.
+ */
+@Getter
+public class ImportReport {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ImportKind kind;
+
+    private long rowsRead;
+
+    private long rowsImported;
+
+    private long failedRows;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Constructor for ImportReport.
+     *
+     * @param kind The kind of records being imported.
+     */
+    public ImportReport(ImportKind kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * Records that a row was read from the input.
+     */
+    public void rowRead() {
+        rowsRead++;
+    }
+
+    /**
+     * Records that rows were written to the database.
+     *
+     * @param rows The number of rows written.
+     */
+    public void rowsImported(long rows) {
+        rowsImported += rows;
+    }
+
+    /**
+     * Records a row that could not be imported.
+     *
+     * @param line    The line number of the row in the input.
+     * @param message The reason the row was rejected.
+     */
+    public void rowFailed(long line, String message) {
+        failedRows++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    /**
+     * Stops the clock and computes the throughput.
+     */
+    public void finish() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        elapsedMillis = elapsedNanos / 1_000_000;
+        rowsPerSecond = elapsedNanos > 0 ? rowsImported * 1_000_000_000d / elapsedNanos : 0;
+    }
+
+    /**
+     * A row that could not be imported.
+     *
+     * @param line    The line number of the row in the input.
+     * @param message The reason the row was rejected.
+     */
+    public record RowError(long line, String message) {
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s import: %d rows read, %d imported, %d failed in %d ms (%.0f rows/s)",
+                kind, rowsRead, rowsImported, failedRows, elapsedMillis, rowsPerSecond);
+    }
+}
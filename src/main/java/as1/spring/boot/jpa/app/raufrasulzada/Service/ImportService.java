@@ -0,0 +1,19 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import java.io.InputStream;
+
+/**
+ * Service interface for bulk importing students, courses and enrollments.
+ */
+public interface ImportService {
+
+    /**
+     * Imports records from a stream, reading and writing them in batches so memory use stays constant.
+     * Rows that cannot be imported are reported instead of aborting the import.
+     * @param kind The kind of records in the stream.
+     * @param format The format of the stream.
+     * @param input The stream to read; it is closed when the import finishes.
+     * @return A report of the import.
+     */
+    ImportReport importRecords(ImportKind kind, DataFormat format, InputStream input);
+}
@@ -0,0 +1,104 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes and decodes the opaque "after" tokens used by keyset (seek) pagination.
+ * <p>
+ * A token holds the sort field, the value of that field and the ID of the last row of a page,
+ * so the next page can be fetched with a seek predicate instead of an OFFSET.
+ */
+public final class KeysetCursor {
+
+    private static final String ID = "id";
+
+    private KeysetCursor() {
+
+    }
+
+    /**
+     * Adds the ID as a tiebreaker to the given sort, using the direction of the first sort order.
+     *
+     * @param sort The sort requested by the caller.
+     * @return The sort followed by the ID.
+     */
+    public static Sort withIdTiebreaker(Sort sort) {
+        Sort.Order primary = primaryOrder(sort);
+        if (ID.equals(primary.getProperty()) || sort.getOrderFor(ID) != null) {
+            return sort;
+        }
+        return sort.and(Sort.by(primary.getDirection(), ID));
+    }
+
+    /**
+     * Decodes an "after" token into a scroll position.
+     *
+     * @param after The token of the last row already shown, or an empty value for the first page.
+     * @param sort  The sort the token was issued for.
+     * @return The position to continue scrolling from.
+     * @throws IllegalArgumentException If the token is malformed or was issued for another sort field.
+     */
+    public static ScrollPosition decode(String after, Sort sort) {
+        if (!StringUtils.hasText(after)) {
+            return ScrollPosition.keyset();
+        }
+        String sortField = primaryOrder(sort).getProperty();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(after)))) {
+            String field = in.readUTF();
+            String value = in.readUTF();
+            long id = in.readLong();
+            if (!field.equals(sortField)) {
+                throw new IllegalArgumentException("Cursor was issued for sort field " + field + ", not " + sortField);
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(field, value);
+            keys.put(ID, id);
+            return ScrollPosition.forward(keys);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + after, e);
+        }
+    }
+
+    /**
+     * Encodes the position after the last row of a window as an "after" token.
+     *
+     * @param window The window that was just read.
+     * @param sort   The sort the window was read with.
+     * @return The token for the next window, or null if there is none.
+     */
+    public static String next(Window<?> window, Sort sort) {
+        if (window.isEmpty() || !window.hasNext()) {
+            return null;
+        }
+        String sortField = primaryOrder(sort).getProperty();
+        KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        Map<String, ?> keys = position.getKeys();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(sortField);
+            out.writeUTF(String.valueOf(keys.get(sortField)));
+            out.writeLong(((Number) keys.get(ID)).longValue());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private static Sort.Order primaryOrder(Sort sort) {
+        return sort.stream().findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Keyset pagination requires a sort"));
+    }
+}
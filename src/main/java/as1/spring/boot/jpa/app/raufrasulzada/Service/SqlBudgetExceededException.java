@@ -0,0 +1,33 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import lombok.Getter;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a request or a service call issues more SQL statements than its budget allows, or repeats
+ * a statement often enough to look like an N+1 pattern, while {@code sql-budget.fail-on-violation} is set.
+ */
+@Getter
+public class SqlBudgetExceededException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String scope;
+
+    private final int statements;
+
+    /**
+     * Constructor for SqlBudgetExceededException.
+     *
+     * @param scope      The request or service call that exceeded its budget.
+     * @param statements The number of statements it issued.
+     * @param report     The description of the violations.
+     */
+    public SqlBudgetExceededException(String scope, int statements, String report) {
+        super(report);
+        this.scope = scope;
+        this.statements = statements;
+    }
+}
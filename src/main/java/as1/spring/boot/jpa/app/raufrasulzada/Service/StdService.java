@@ -3,6 +3,9 @@ package as1.spring.boot.jpa.app.raufrasulzada.Service;
 import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
@@ -53,70 +56,40 @@ public interface StdService {
     Student findStudentByDetails(Student student);
 
     /**
-     * Retrieves all students with their courses with pagination.
+     * Retrieves the students matching a filter, with their courses, with pagination.
+     * The total is only counted when it cannot be derived from the page itself, and is cached briefly.
+     * @param filter The filters to apply; empty filters are ignored.
      * @param pageable Pagination information.
      * @return A page of students with their courses.
      */
-    Page<Student> retrieveAllStudentsWithCoursesPaginated(Pageable pageable);
+    Page<Student> retrieveStudents(StudentFilter filter, Pageable pageable);
 
     /**
-     * Retrieves students by first name and last name with pagination.
-     * @param firstName The first name of the student to retrieve.
-     * @param lastName The last name of the student to retrieve.
+     * Retrieves a slice of the students matching a filter, with their courses, without counting the matches.
+     * @param filter The filters to apply; empty filters are ignored.
      * @param pageable Pagination information.
-     * @return A page of students with the specified first and last names.
+     * @return A slice of students with their courses.
      */
-    Page<Student> retrieveStudentsByFirstNameAndLastName(String firstName, String lastName, Pageable pageable);
+    Slice<Student> retrieveStudentSlice(StudentFilter filter, Pageable pageable);
 
     /**
-     * Retrieves students by course name with pagination.
-     * @param courseName The name of the course to find students for.
-     * @param pageable Pagination information.
-     * @return A page of students enrolled in the specified course.
-     */
-    Page<Student> retrieveStudentsByCourseName(String courseName, Pageable pageable);
-
-    /**
-     * Retrieves students by first name with pagination.
-     * @param firstName The first name of the student to retrieve.
-     * @param pageable Pagination information.
-     * @return A page of students with the specified first name.
-     */
-    Page<Student> retrieveStudentsByFirstName(String firstName, Pageable pageable);
-
-    /**
-     * Retrieves students by last name with pagination.
-     * @param lastName The last name of the student to retrieve.
-     * @param pageable Pagination information.
-     * @return A page of students with the specified last name.
-     */
-    Page<Student> retrieveStudentsByLastName(String lastName, Pageable pageable);
-
-    /**
-     * Retrieves students by first name, last name, and course name with pagination.
-     * @param firstName The first name of the student to retrieve.
-     * @param lastName The last name of the student to retrieve.
-     * @param courseName The name of the course to find students for.
-     * @param pageable Pagination information.
-     * @return A page of students with the specified first name, last name, and course name.
+     * Retrieves the students matching a filter, with their courses, using keyset pagination.
+     * @param filter The filters to apply; empty filters are ignored.
+     * @param after The opaque cursor of the last student already shown, or an empty value for the first window.
+     * @param sort The sort order; the ID is appended as a tiebreaker.
+     * @param limit The maximum number of students to return.
+     * @return A window of students with their courses.
      */
-    Page<Student> retrieveStudentsByFirstNameLastNameAndCourseName(String firstName, String lastName, String courseName, Pageable pageable);
+    Window<Student> retrieveStudentsAfter(StudentFilter filter, String after, Sort sort, int limit);
 
     /**
-     * Retrieves students by first name and course name with pagination.
-     * @param firstName The first name of the student to retrieve.
-     * @param courseName The name of the course to find students for.
-     * @param pageable Pagination information.
-     * @return A page of students with the specified first name and course name.
-     */
-    Page<Student> retrieveStudentsByFirstNameAndCourseName(String firstName, String courseName, Pageable pageable);
-
-    /**
-     * Retrieves students by last name and course name with pagination.
-     * @param lastName The last name of the student to retrieve.
-     * @param courseName The name of the course to find students for.
-     * @param pageable Pagination information.
-     * @return A page of students with the specified last name and course name.
+     * Retrieves the columns of the students matching a filter, with their courses, using keyset pagination.
+     * No entities are loaded: one query reads the students and one more the courses of the whole window.
+     * @param filter The filters to apply; empty filters are ignored.
+     * @param after The opaque cursor of the last student already returned, or an empty value for the first window.
+     * @param sort The sort order; the ID is appended as a tiebreaker.
+     * @param limit The maximum number of students to return.
+     * @return A window of student summaries.
      */
-    Page<Student> retrieveStudentsByLastNameAndCourseName(String lastName, String courseName, Pageable pageable);
+    Window<StudentSummary> retrieveStudentSummaries(StudentFilter filter, String after, Sort sort, int limit);
 }
@@ -0,0 +1,61 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.util.StringUtils;
+
+import java.util.StringJoiner;
+
+/**
+ * The filters of a student search. Empty filters are ignored, so an empty filter matches every student.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentFilter {
+
+    /**
+     * The exact first name of the student.
+     */
+    private String firstName;
+
+    /**
+     * The exact last name of the student.
+     */
+    private String lastName;
+
+    /**
+     * Text contained in the name of at least one course the student is enrolled in, matched case-sensitively.
+     */
+    private String courseName;
+
+    /**
+     * Checks whether no filter is set.
+     * @return True if the filter matches every student.
+     */
+    public boolean isEmpty() {
+        return !StringUtils.hasText(firstName) && !StringUtils.hasText(lastName) && !StringUtils.hasText(courseName);
+    }
+
+    /**
+     * Names the filters that are set, without their values, e.g. "firstName+courseName".
+     * @return The names joined with "+", or "none" for an empty filter.
+     */
+    public String describe() {
+        StringJoiner names = new StringJoiner("+");
+        names.setEmptyValue("none");
+        if (StringUtils.hasText(firstName)) {
+            names.add("firstName");
+        }
+        if (StringUtils.hasText(lastName)) {
+            names.add("lastName");
+        }
+        if (StringUtils.hasText(courseName)) {
+            names.add("courseName");
+        }
+        return names.toString();
+    }
+}
@@ -0,0 +1,14 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import java.util.List;
+
+/**
+ * The columns of a student with their courses, as returned by the JSON API.
+ *
+ * @param id        The ID of the student.
+ * @param firstName The first name of the student.
+ * @param lastName  The last name of the student.
+ * @param courses   The courses the student is enrolled in, ordered by name.
+ */
+public record StudentSummary(Long id, String firstName, String lastName, List<CourseSummary> courses) {
+}
@@ -0,0 +1,8 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+/**
+ * Published when students or their enrollments have been saved, updated, deleted or imported.
+ * Listeners bound to the transaction run once the change is committed.
+ */
+public record StudentsChangedEvent() {
+}
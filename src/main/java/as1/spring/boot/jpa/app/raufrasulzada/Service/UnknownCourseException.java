@@ -0,0 +1,33 @@
+package as1.spring.boot.jpa.app.raufrasulzada.Service;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Thrown when one or more requested course IDs do not exist.
+ * Answered with 400 Bad Request when it reaches a controller.
+ */
+@Getter
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnknownCourseException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final List<Long> courseIds;
+
+    /**
+     * Constructor for UnknownCourseException.
+     *
+     * @param courseIds The course IDs that could not be found.
+     */
+    public UnknownCourseException(Collection<Long> courseIds) {
+        super("Unknown course IDs: " + courseIds);
+        this.courseIds = List.copyOf(courseIds);
+    }
+}
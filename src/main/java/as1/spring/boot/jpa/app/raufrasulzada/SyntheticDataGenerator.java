@@ -0,0 +1,195 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.CourseNameIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Synthetic dataset mode for capacity and load testing.
+ * <p>
+ * When the {@value #PROFILE} profile is active, the sample students and courses are not inserted;
+ * instead courses, students and enrollments are generated as configured by {@link GeneratorProperties}.
+ * Students are inserted in batches on several threads with plain JDBC, and every batch draws from its own
+ * random generator derived from the seed, so the dataset does not depend on how the batches are scheduled.
+ */
+@Slf4j
+@Component
+@Profile(SyntheticDataGenerator.PROFILE)
+@RequiredArgsConstructor
+@EnableConfigurationProperties(GeneratorProperties.class)
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    static final String PROFILE = "generate";
+
+    private static final String[] FIRST_NAMES = {
+            "Aysel", "Murad", "Leyla", "Elvin", "Nigar", "Rashad", "Gunel", "Kamran", "Sabina", "Tural",
+            "Anna", "James", "Maria", "David", "Sofia", "Daniel", "Emma", "Lucas", "Olivia", "Noah"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Aliyev", "Mammadov", "Hasanov", "Huseynov", "Guliyev", "Ismayilov", "Abbasov", "Rasulzada",
+            "Smith", "Johnson", "Brown", "Garcia", "Miller", "Davis", "Wilson", "Moore", "Taylor", "Clark"
+    };
+
+    private static final String[] SUBJECTS = {
+            "Calculus", "Physics", "Chemistry", "Programming", "Philosophy", "History", "Economics",
+            "Statistics", "Biology", "Linguistics", "Algorithms", "Databases"
+    };
+
+    private final GeneratorProperties properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final CourseNameIndex courseNameIndex;
+
+    /**
+     * Generates the configured dataset.
+     *
+     * @param args Command-line arguments, ignored.
+     * @throws Exception If a batch fails.
+     */
+    @Override
+    public void run(String... args) throws Exception {
+        long start = System.nanoTime();
+        long firstCourseId = reserveIds("courses_seq");
+        long firstStudentId = reserveIds("students_seq");
+        insertCourses(firstCourseId);
+
+        CourseSampler sampler = new CourseSampler(properties);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getThreads()));
+        long enrollments = 0;
+        try {
+            List<Future<Integer>> batches = new ArrayList<>();
+            for (int from = 0; from < properties.getStudents(); from += properties.getBatchSize()) {
+                int batchFrom = from;
+                int batchTo = Math.min(from + properties.getBatchSize(), properties.getStudents());
+                batches.add(executor.submit(() -> transactionTemplate.execute(status ->
+                        insertStudents(batchFrom, batchTo, firstStudentId, firstCourseId, sampler))));
+            }
+            for (Future<Integer> batch : batches) {
+                enrollments += batch.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        restartSequence("courses_seq", firstCourseId + properties.getCourses());
+        restartSequence("students_seq", firstStudentId + properties.getStudents());
+        courseNameIndex.invalidate();
+        log.info("Generated {} courses in {} departments, {} students and {} enrollments ({} distribution, seed {}) in {} ms",
+                properties.getCourses(), properties.getDepartments(), properties.getStudents(), enrollments,
+                properties.getDistribution(), properties.getSeed(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void insertCourses(long firstCourseId) {
+        List<Object[]> rows = new ArrayList<>(properties.getCourses());
+        for (int i = 0; i < properties.getCourses(); i++) {
+            String name = SUBJECTS[i % SUBJECTS.length] + " " + (i / SUBJECTS.length + 1);
+            rows.add(new Object[]{firstCourseId + i, name, "Department " + (i % properties.getDepartments() + 1)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO courses (id, coursename, department) VALUES (?, ?, ?)", rows);
+    }
+
+    /**
+     * Inserts the students with the given ordinals and their enrollments.
+     *
+     * @return The number of enrollments inserted.
+     */
+    private int insertStudents(int from, int to, long firstStudentId, long firstCourseId, CourseSampler sampler) {
+        SplittableRandom random = new SplittableRandom(properties.getSeed() * 31 + from);
+        List<Object[]> students = new ArrayList<>(to - from);
+        List<Object[]> enrollments = new ArrayList<>((to - from) * properties.getEnrollmentsPerStudent());
+        for (int n = from; n < to; n++) {
+            long studentId = firstStudentId + n;
+            students.add(new Object[]{studentId,
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)]});
+            for (int course : sampler.sample(random, random.nextInt(2 * properties.getEnrollmentsPerStudent() + 1))) {
+                enrollments.add(new Object[]{studentId, firstCourseId + course});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO students (id, firstname, lastname) VALUES (?, ?, ?)", students);
+        jdbcTemplate.batchUpdate("INSERT INTO studentcourse (studentid, courseid) VALUES (?, ?)", enrollments);
+        return enrollments.size();
+    }
+
+    /**
+     * Takes the next value of a sequence as the first generated ID. IDs handed out by Hibernate's pooled
+     * optimizer so far all lie below this value.
+     */
+    private long reserveIds(String sequence) {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+    }
+
+    /**
+     * Moves a sequence past the generated IDs, leaving a gap of one allocation block because Hibernate
+     * hands out the block below each value it reads.
+     */
+    private void restartSequence(String sequence, long nextFreeId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (nextFreeId + 50));
+    }
+
+    /**
+     * Picks distinct courses by popularity. With the Zipf distribution course 0 is the most popular.
+     */
+    private static final class CourseSampler {
+
+        private final int courses;
+
+        private final double[] cumulative;
+
+        CourseSampler(GeneratorProperties properties) {
+            courses = properties.getCourses();
+            if (properties.getDistribution() == GeneratorProperties.Distribution.ZIPF) {
+                cumulative = new double[courses];
+                double total = 0;
+                for (int k = 0; k < courses; k++) {
+                    total += 1 / Math.pow(k + 1, properties.getZipfExponent());
+                    cumulative[k] = total;
+                }
+                for (int k = 0; k < courses; k++) {
+                    cumulative[k] /= total;
+                }
+            } else {
+                cumulative = null;
+            }
+        }
+
+        Set<Integer> sample(SplittableRandom random, int count) {
+            Set<Integer> picked = new LinkedHashSet<>();
+            int wanted = Math.min(count, courses);
+            // Popular courses are drawn repeatedly under Zipf, so retries are bounded rather than exact
+            for (int attempt = 0; picked.size() < wanted && attempt < wanted * 8; attempt++) {
+                picked.add(next(random));
+            }
+            return picked;
+        }
+
+        private int next(SplittableRandom random) {
+            if (cumulative == null) {
+                return random.nextInt(courses);
+            }
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, courses - 1);
+        }
+    }
+}
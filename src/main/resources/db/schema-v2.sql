@@ -0,0 +1,39 @@
+-- Schema version 2, created by the fast-startup profile instead of diffing it with spring.jpa.hibernate.ddl-auto=update.
+-- Generated from the entities by Hibernate's schema export
+-- (spring.jpa.properties.jakarta.persistence.schema-generation.scripts.action=create), with IF NOT EXISTS added
+-- so that it can run against an existing database and the foreign keys declared inline.
+-- Version 2 adds the data_versions table to version 1.
+-- Any change to the entities needs a schema-v3.sql and the new location in application-fast-startup.properties;
+-- FastStartupTests fails while the script and the entities differ.
+
+create sequence if not exists courses_seq start with 1 increment by 50;
+
+create sequence if not exists students_seq start with 1 increment by 50;
+
+create table if not exists courses (
+    id bigint not null,
+    coursename varchar(255) not null unique,
+    department varchar(255) not null,
+    primary key (id)
+);
+
+create table if not exists data_versions (
+    name varchar(255) not null,
+    version bigint not null,
+    primary key (name)
+);
+
+create table if not exists students (
+    id bigint not null,
+    firstname varchar(255) not null,
+    lastname varchar(255) not null,
+    primary key (id)
+);
+
+create table if not exists studentcourse (
+    courseid bigint not null,
+    studentid bigint not null,
+    primary key (courseid, studentid),
+    constraint FK7ai3icweiqw09lya8kpomndr foreign key (courseid) references courses,
+    constraint FKkopfmrw0s5aoatgbb6v3m1p25 foreign key (studentid) references students
+);
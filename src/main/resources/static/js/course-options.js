@@ -0,0 +1,26 @@
+// Fills the course dropdowns marked with data-options-url from the course options endpoint.
+// The endpoint returns [id, "name"] pairs; data-option-value="name" uses the names as option values,
+// and data-selected lists the IDs of the courses to select. A failed request leaves a disabled option saying so.
+document.querySelectorAll('select[data-options-url]').forEach(function (select) {
+    var byName = select.dataset.optionValue === 'name';
+    var selected = (select.dataset.selected || '').split(',');
+    fetch(select.dataset.optionsUrl)
+        .then(function (response) {
+            if (!response.ok) {
+                throw new Error('Loading the course options failed with status ' + response.status);
+            }
+            return response.json();
+        })
+        .then(function (options) {
+            var fragment = document.createDocumentFragment();
+            options.forEach(function (option) {
+                var isSelected = selected.indexOf(String(option[0])) >= 0;
+                fragment.appendChild(new Option(option[1], byName ? option[1] : option[0], isSelected, isSelected));
+            });
+            select.appendChild(fragment);
+        })
+        .catch(function (error) {
+            select.appendChild(new Option('Courses could not be loaded', '')).disabled = true;
+            console.error(error);
+        });
+});
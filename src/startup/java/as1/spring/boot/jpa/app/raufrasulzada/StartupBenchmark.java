@@ -0,0 +1,202 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup benchmark measuring the time to first request of the application in each startup mode.
+ * <p>
+ * Every run starts the application in a new JVM and measures the time from starting the process until a request
+ * to the probed page succeeds, which is what a new instance started under load has to wait for. The modes are
+ * run in turns, so a slower machine affects them all alike, and each mode first gets unmeasured warm-up starts, which
+ * bring the jars and the archive into the file system cache. Startup times vary from run to run, so every mode is
+ * reported with the median and the interquartile range of its runs, next to the fastest and the slowest run:
+ * <ul>
+ *     <li>default: {@code ddl-auto=update} and the sample data</li>
+ *     <li>fast-startup: the fast-startup profile, which validates the schema script instead</li>
+ *     <li>fast-startup + AOT: the same on the classes generated by Spring AOT processing, if {@code aot} is set</li>
+ *     <li>fast-startup + CDS: the fast-startup profile (with AOT if {@code aot} is set) and the AppCDS archive</li>
+ * </ul>
+ * Options, all given as {@code --name=value}; the {@code startupBenchmark} Gradle task sets the first four:
+ * <ul>
+ *     <li>{@code java}: the java executable to start the application with</li>
+ *     <li>{@code classpath}: the classpath of the application, which must be the one the archive was created with</li>
+ *     <li>{@code archive}: the AppCDS archive</li>
+ *     <li>{@code aot}: whether the classpath holds the classes generated by Spring AOT processing (default false)</li>
+ *     <li>{@code warmups}: unmeasured starts per mode before the measured ones (default 2)</li>
+ *     <li>{@code runs}: measured starts per mode, at least 5 (default 10)</li>
+ *     <li>{@code port}: the port the application listens on (default 18080)</li>
+ *     <li>{@code path}: the page requested (default {@code /students})</li>
+ *     <li>{@code timeout}: seconds to wait for the first response before giving up (default 120)</li>
+ * </ul>
+ */
+public final class StartupBenchmark {
+
+	private static final String MAIN_CLASS = "as1.spring.boot.jpa.app.raufrasulzada.RaufRasulzadaApplication";
+
+	private static final String FAST_STARTUP = "-Dspring.profiles.active=fast-startup";
+
+	private static final String AOT = "-Dspring.aot.enabled=true";
+
+	private static final int MIN_RUNS = 5;
+
+	private final Map<String, String> options;
+
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+	private StartupBenchmark(Map<String, String> options) {
+		this.options = options;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--") || !arg.contains("=")) {
+				throw new IllegalArgumentException("Expected --name=value but got " + arg);
+			}
+			options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+		}
+		new StartupBenchmark(options).run();
+	}
+
+	private void run() throws Exception {
+		int warmups = Integer.parseInt(option("warmups", "2"));
+		int runs = Integer.parseInt(option("runs", "10"));
+		if (runs < MIN_RUNS) {
+			throw new IllegalArgumentException("At least " + MIN_RUNS + " runs per mode are needed for a median and its spread");
+		}
+		Map<String, List<String>> modes = modes();
+		Map<String, List<Long>> results = new LinkedHashMap<>();
+		modes.keySet().forEach(mode -> results.put(mode, new ArrayList<>()));
+
+		String path = option("path", "/students");
+		System.out.printf("Warming up with %d starts per mode%n", warmups);
+		for (int warmup = 0; warmup < warmups; warmup++) {
+			for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+				timeToFirstRequest(mode.getKey(), mode.getValue(), path);
+			}
+		}
+		System.out.printf("Starting the application %d times per mode and requesting %s%n", runs, path);
+		for (int run = 0; run < runs; run++) {
+			for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+				long millis = timeToFirstRequest(mode.getKey(), mode.getValue(), path);
+				results.get(mode.getKey()).add(millis);
+				System.out.printf("  %-28s run %d: %6d ms%n", mode.getKey(), run + 1, millis);
+			}
+		}
+		report(results);
+	}
+
+	private Map<String, List<String>> modes() {
+		boolean aot = Boolean.parseBoolean(option("aot", "false"));
+		String archive = options.get("archive");
+		Map<String, List<String>> modes = new LinkedHashMap<>();
+		modes.put("default", List.of());
+		modes.put("fast-startup", List.of(FAST_STARTUP));
+		if (aot) {
+			modes.put("fast-startup + AOT", List.of(FAST_STARTUP, AOT));
+		}
+		if (archive != null && new File(archive).isFile()) {
+			List<String> jvmArgs = new ArrayList<>(List.of(FAST_STARTUP, "-XX:SharedArchiveFile=" + archive));
+			if (aot) {
+				jvmArgs.add(AOT);
+			}
+			modes.put(aot ? "fast-startup + AOT + CDS" : "fast-startup + CDS", jvmArgs);
+		} else {
+			System.out.println("No AppCDS archive found, skipping the CDS mode");
+		}
+		return modes;
+	}
+
+	private long timeToFirstRequest(String mode, List<String> jvmArgs, String path) throws IOException, InterruptedException {
+		String port = option("port", "18080");
+		List<String> command = new ArrayList<>();
+		command.add(option("java", Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+		command.addAll(jvmArgs);
+		command.addAll(List.of("-Dserver.port=" + port, "-Dspring.jpa.show-sql=false", "-cp", required("classpath"), MAIN_CLASS));
+		Path log = Files.createTempFile("startup-benchmark", ".log");
+
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Long.parseLong(option("timeout", "120")));
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+		try {
+			while (System.nanoTime() < deadline) {
+				if (!process.isAlive()) {
+					throw new IllegalStateException(mode + " exited with " + process.exitValue() + ", see " + log);
+				}
+				try {
+					HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+					if (response.statusCode() == 200) {
+						long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+						Files.delete(log);
+						return millis;
+					}
+					if (response.statusCode() >= 500) {
+						throw new IllegalStateException(mode + " answered " + path + " with " + response.statusCode() + ", see " + log);
+					}
+				} catch (ConnectException e) {
+					// Not listening yet
+				}
+				Thread.sleep(10);
+			}
+			throw new IllegalStateException(mode + " did not answer " + path + " in time, see " + log);
+		} finally {
+			stop(process);
+		}
+	}
+
+	private static void stop(Process process) throws InterruptedException {
+		process.destroy();
+		if (!process.waitFor(30, TimeUnit.SECONDS)) {
+			process.destroyForcibly().waitFor();
+		}
+	}
+
+	private static void report(Map<String, List<Long>> results) {
+		double baseline = percentile(results.get("default"), 50);
+		System.out.printf("%n%-28s %10s %10s %10s %10s %10s %9s%n", "Mode", "median ms", "p25 ms", "p75 ms", "min ms", "max ms", "speed-up");
+		results.forEach((mode, millis) -> {
+			double median = percentile(millis, 50);
+			System.out.printf("%-28s %10.0f %10.0f %10.0f %10d %10d %8.2fx%n", mode, median, percentile(millis, 25), percentile(millis, 75),
+					Collections.min(millis), Collections.max(millis), baseline / median);
+		});
+		System.out.println("Speed-ups compare medians; where the p25-p75 ranges of two modes overlap, their difference is within the noise.");
+	}
+
+	// Interpolates between the two closest runs, so that the median of an even number of runs is their mean
+	private static double percentile(List<Long> millis, int percentile) {
+		List<Long> sorted = millis.stream().sorted().toList();
+		double rank = (sorted.size() - 1) * percentile / 100.0;
+		int lower = (int) Math.floor(rank);
+		int upper = (int) Math.ceil(rank);
+		return sorted.get(lower) + (sorted.get(upper) - sorted.get(lower)) * (rank - lower);
+	}
+
+	private String required(String name) {
+		String value = options.get(name);
+		if (value == null) {
+			throw new IllegalArgumentException("Missing --" + name + "=...");
+		}
+		return value;
+	}
+
+	private String option(String name, String defaultValue) {
+		return options.getOrDefault(name, defaultValue);
+	}
+}
@@ -0,0 +1,164 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies the filters, sorting and keyset cursors of the JSON API, and that the listing pages only show
+ * keyset navigation when they are paginated by cursor.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:api",
+		"spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ApiControllerTests {
+
+	private static final int STUDENTS = 7;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private StudentRepo studentRepo;
+
+	@Autowired
+	private CourseRepo courseRepo;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	void seedStudents() {
+		transactionTemplate.executeWithoutResult(status -> {
+			List<Course> courses = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				courses.add(courseRepo.save(new Course("Api Course " + i, i < 2 ? "Api A" : "Api B")));
+			}
+			for (int i = 0; i < STUDENTS; i++) {
+				Student student = new Student("Api", "Student " + i);
+				student.setCourses(new HashSet<>(courses.subList(i % 2, i % 2 + 2 + i % 3 / 2)));
+				studentRepo.save(student);
+			}
+		});
+	}
+
+	@Test
+	void listingPagesOnlyShowKeysetNavigationInKeysetMode() throws Exception {
+		mockMvc.perform(get("/students").param("after", ""))
+				.andExpect(content().string(containsString("Students Keyset Pagination")));
+		mockMvc.perform(get("/students").param("after", "").param("firstName", "Nobody"))
+				.andExpect(content().string(not(containsString("Students Keyset Pagination"))));
+		mockMvc.perform(get("/courses").param("after", "").param("courseName", "Nobody"))
+				.andExpect(content().string(not(containsString("Courses Keyset Pagination"))));
+	}
+
+	@Test
+	void cursorsWalkThroughEveryMatchingStudentOnce() throws Exception {
+		List<String> lastNames = new ArrayList<>();
+		String after = null;
+		int windows = 0;
+		do {
+			MockHttpServletRequestBuilder request = get("/api/students").param("firstName", "Api")
+					.param("sortField", "lastName").param("size", "3");
+			if (after != null) {
+				request.param("after", after);
+			}
+			JsonNode window = read(request);
+			window.get("content").forEach(student -> lastNames.add(student.get("lastName").asText()));
+			after = window.get("nextCursor").isNull() ? null : window.get("nextCursor").asText();
+			windows++;
+		} while (after != null);
+
+		assertEquals(3, windows);
+		assertEquals(List.of("Student 0", "Student 1", "Student 2", "Student 3", "Student 4", "Student 5", "Student 6"), lastNames);
+	}
+
+	@Test
+	void studentsCarryAllTheirCourses() throws Exception {
+		mockMvc.perform(get("/api/students").param("lastName", "Student 0"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].firstName").value("Api"))
+				.andExpect(jsonPath("$.content[0].courses", hasSize(2)))
+				.andExpect(jsonPath("$.content[0].courses[0].courseName").value("Api Course 0"))
+				.andExpect(jsonPath("$.content[0].courses[1].courseName").value("Api Course 1"))
+				.andExpect(jsonPath("$.content[0].courses[1].department").value("Api A"))
+				.andExpect(jsonPath("$.nextCursor").value(nullValue()));
+	}
+
+	@Test
+	void studentsAreFilteredByCourseAndSortedDescending() throws Exception {
+		mockMvc.perform(get("/api/students").param("courseName", "Api Course 2")
+						.param("sortField", "lastName").param("sortOrder", "desc"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(4)))
+				.andExpect(jsonPath("$.content[0].lastName").value("Student 5"))
+				.andExpect(jsonPath("$.content[0].courses", hasSize(3)))
+				.andExpect(jsonPath("$.content[1].lastName").value("Student 3"))
+				.andExpect(jsonPath("$.content[3].lastName").value("Student 1"));
+	}
+
+	@Test
+	void coursesAreFilteredByDepartmentAndPaged() throws Exception {
+		JsonNode first = read(get("/api/courses").param("courseDepartment", "Api B")
+				.param("sortField", "courseName").param("size", "1"));
+		assertEquals("Api Course 2", first.get("content").get(0).get("courseName").asText());
+
+		mockMvc.perform(get("/api/courses").param("courseDepartment", "Api B").param("sortField", "courseName")
+						.param("size", "1").param("after", first.get("nextCursor").asText()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].courseName").value("Api Course 3"))
+				.andExpect(jsonPath("$.content[0].department").value("Api B"))
+				.andExpect(jsonPath("$.nextCursor").value(nullValue()));
+	}
+
+	@Test
+	void invalidParametersAreRejected() throws Exception {
+		mockMvc.perform(get("/api/students").param("sortField", "courses")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/students").param("size", "1000")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/courses").param("after", "not a cursor")).andExpect(status().isBadRequest());
+
+		String lastNameCursor = read(get("/api/students").param("sortField", "lastName").param("size", "1"))
+				.get("nextCursor").asText();
+		mockMvc.perform(get("/api/students").param("sortField", "firstName").param("after", lastNameCursor))
+				.andExpect(status().isBadRequest());
+	}
+
+	private JsonNode read(MockHttpServletRequestBuilder request) throws Exception {
+		String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+}
@@ -0,0 +1,146 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.DataVersionServiceImp;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlStatementCounter;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies the entity tags of the student and course listings: an unchanged listing is answered with
+ * 304 Not Modified without any query, and every committed write changes the tag, including the writes
+ * of other instances sharing the database once they have been polled.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:conditionalget",
+		"spring.jpa.show-sql=false",
+		"data-versions.poll-interval=PT1H"
+})
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class ConditionalGetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StdService stdService;
+
+	@Autowired
+	private CrService crService;
+
+	@Autowired
+	private SqlStatementCounter statementCounter;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataVersionServiceImp dataVersionService;
+
+	@Test
+	void unchangedListingsAreNotRenderedAgain() throws Exception {
+		String etag = etag(get("/students").param("firstName", "Conditional"));
+		double searches = serviceCalls("retrieveStudents");
+
+		SqlStatementCounter.Scope scope = statementCounter.start("conditional get");
+		try {
+			mockMvc.perform(get("/students").param("firstName", "Conditional").header(HttpHeaders.IF_NONE_MATCH, etag))
+					.andExpect(status().isNotModified())
+					.andExpect(header().string(HttpHeaders.ETAG, etag))
+					.andExpect(content().string(""));
+		} finally {
+			statementCounter.stop(scope);
+		}
+		assertEquals(0, scope.getStatements(), scope.getShapes().toString());
+		assertEquals(searches, serviceCalls("retrieveStudents"));
+	}
+
+	@Test
+	void tagsDependOnTheRequestParameters() throws Exception {
+		String etag = etag(get("/courses").param("courseDepartment", "Conditional"));
+		assertNotEquals(etag, etag(get("/courses").param("courseDepartment", "Other")));
+		assertNotEquals(etag, etag(get("/students").param("courseDepartment", "Conditional")));
+		assertEquals(etag, etag(get("/courses").param("courseDepartment", "Conditional")));
+
+		mockMvc.perform(get("/courses").param("courseDepartment", "Other").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void writesChangeTheTags() throws Exception {
+		String students = etag(get("/students"));
+		String courses = etag(get("/courses"));
+
+		Student student = stdService.saveStudent(new Student("Conditional", "Saved"));
+		String saved = etag(get("/students"));
+		assertNotEquals(students, saved);
+		mockMvc.perform(get("/students").header(HttpHeaders.IF_NONE_MATCH, students)).andExpect(status().isOk());
+		assertNotEquals(courses, etag(get("/courses")));
+
+		crService.saveCourse(new Course("Conditional Course", "Conditional"));
+		assertNotEquals(saved, etag(get("/students")));
+
+		stdService.deleteStudentById(student.getId());
+		mockMvc.perform(get("/students").header(HttpHeaders.IF_NONE_MATCH, saved)).andExpect(status().isOk());
+	}
+
+	@Test
+	void polledWritesOfOtherInstancesChangeTheTagsAndClearTheCaches() throws Exception {
+		Course course = crService.saveCourse(new Course("Conditional Elsewhere", "Elsewhere"));
+		assertEquals("Conditional Elsewhere", crService.retrieveCourseById(course.getId()).getCourseName());
+		String etag = etag(get("/courses").param("courseDepartment", "Elsewhere"));
+
+		// Another instance renames the course and increases the course version in the same transaction
+		jdbcTemplate.update("UPDATE courses SET coursename = 'Conditional Renamed' WHERE id = ?", course.getId());
+		jdbcTemplate.update("UPDATE data_versions SET version = version + 1 WHERE name = 'courses'");
+
+		// Requests neither query the versions nor clear caches, so the change is only noticed by the next poll
+		mockMvc.perform(get("/courses").param("courseDepartment", "Elsewhere").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		assertEquals("Conditional Elsewhere", crService.retrieveCourseById(course.getId()).getCourseName());
+
+		dataVersionService.pollVersions();
+		mockMvc.perform(get("/courses").param("courseDepartment", "Elsewhere").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("Conditional Renamed")));
+		assertEquals("Conditional Renamed", crService.retrieveCourseById(course.getId()).getCourseName());
+	}
+
+	private String etag(MockHttpServletRequestBuilder request) throws Exception {
+		String etag = mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertTrue(etag != null && etag.startsWith("\""), String.valueOf(etag));
+		return etag;
+	}
+
+	private double serviceCalls(String method) {
+		Timer timer = meterRegistry.find("service.method").tag("method", method).timer();
+		return timer != null ? timer.count() : 0;
+	}
+}
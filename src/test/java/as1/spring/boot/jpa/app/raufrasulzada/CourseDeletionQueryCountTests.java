@@ -0,0 +1,64 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the number of SQL statements of deleting a course does not grow with the number of enrolled students.
+ * How long the deletion takes is measured by {@code StudentWriteBenchmarks} in {@code src/jmh}.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:coursedeletion",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CourseDeletionQueryCountTests {
+
+	@Autowired
+	private CrService crService;
+
+	@Autowired
+	private CourseRepo courseRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@ParameterizedTest
+	@ValueSource(ints = {10, 1_000})
+	void deleteCourseWithManyEnrollments(int enrollments) {
+		Course course = courseRepo.save(new Course("Popular Course " + enrollments, "Benchmark"));
+		jdbcTemplate.update("INSERT INTO students (id, firstname, lastname) SELECT NEXT VALUE FOR students_seq, 'Enrolled', CAST(x AS VARCHAR) FROM SYSTEM_RANGE(1, ?)", enrollments);
+		jdbcTemplate.update("INSERT INTO studentcourse (studentid, courseid) SELECT id, ? FROM students WHERE firstname = 'Enrolled'", course.getId());
+		assertEquals(enrollments, countEnrollments(course.getId()));
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		crService.deleteCourseById(course.getId());
+
+		// Two of them increase the student and the course version
+		assertTrue(statistics.getPrepareStatementCount() <= 4, "expected at most 4 statements but was " + statistics.getPrepareStatementCount());
+		assertEquals(0, countEnrollments(course.getId()));
+		assertFalse(courseRepo.existsById(course.getId()));
+		jdbcTemplate.update("DELETE FROM students WHERE firstname = 'Enrolled'");
+	}
+
+	private int countEnrollments(Long courseId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM studentcourse WHERE courseid = ?", Integer.class, courseId);
+	}
+}
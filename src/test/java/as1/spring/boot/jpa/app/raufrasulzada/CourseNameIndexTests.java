@@ -0,0 +1,121 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CoursesChangedEvent;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportKind;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.CourseNameIndex;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifies that the course name index finds courses by case-sensitive substring, applies added, renamed and deleted
+ * courses without reading the courses again, and follows imported courses as well as changes announced by a
+ * {@link CoursesChangedEvent} naming no course.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:coursenameindex",
+		"spring.jpa.show-sql=false"
+})
+class CourseNameIndexTests {
+
+	@Autowired
+	private CourseNameIndex courseNameIndex;
+
+	@Autowired
+	private CrService crService;
+
+	@Autowired
+	private ImportService importService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private SqlStatementCounter statementCounter;
+
+	@Test
+	void findsCoursesBySubstring() {
+		Course algebra = crService.saveCourse(new Course("Index Linear Algebra", "Index"));
+		Course geometry = crService.saveCourse(new Course("Index Geometry", "Index"));
+
+		assertEquals(List.of(algebra.getId(), geometry.getId()), courseNameIndex.search("Index "));
+		assertEquals(List.of(algebra.getId()), courseNameIndex.search("Algebra"));
+		assertEquals(List.of(geometry.getId()), courseNameIndex.search("ry"));
+		assertEquals(List.of(algebra.getId()), courseNameIndex.search(" Linear Algebra "));
+		assertEquals(List.of(), courseNameIndex.search("linear algebra"));
+		assertEquals(List.of(), courseNameIndex.search("Index Topology"));
+	}
+
+	@Test
+	void followsAddedRenamedAndDeletedCourses() {
+		assertEquals(List.of(), courseNameIndex.search("Renamed Course"));
+
+		Course course = crService.saveCourse(new Course("Indexed Course", "Index"));
+		assertEquals(List.of(course.getId()), courseNameIndex.search("Indexed Course"));
+
+		Course renamed = new Course("Renamed Course", "Index");
+		renamed.setId(course.getId());
+		crService.updateCourse(renamed);
+		assertEquals(List.of(), courseNameIndex.search("Indexed Course"));
+		assertEquals(List.of(course.getId()), courseNameIndex.search("Renamed Course"));
+
+		crService.deleteCourseById(course.getId());
+		assertEquals(List.of(), courseNameIndex.search("Renamed Course"));
+	}
+
+	@Test
+	void appliesCourseWritesWithoutReloading() {
+		courseNameIndex.search("Applied");
+		Course course = crService.saveCourse(new Course("Applied Course", "Index"));
+		Course renamed = new Course("Applied Renamed", "Index");
+		renamed.setId(course.getId());
+		crService.updateCourse(renamed);
+
+		SqlStatementCounter.Scope scope = statementCounter.start("index search");
+		try {
+			assertEquals(List.of(course.getId()), courseNameIndex.search("Applied Renamed"));
+			assertEquals(List.of(), courseNameIndex.search("Applied Course"));
+		} finally {
+			statementCounter.stop(scope);
+		}
+		assertEquals(0, scope.getStatements(), scope.getShapes().toString());
+	}
+
+	@Test
+	void followsImportedCourses() {
+		assertEquals(List.of(), courseNameIndex.search("Imported Course"));
+
+		importService.importRecords(ImportKind.COURSES, DataFormat.CSV, new ByteArrayInputStream(
+				"courseName,department\nImported Course,Index\n".getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(1, courseNameIndex.search("Imported Course").size());
+	}
+
+	@Test
+	void reloadsOnCourseEventsFromElsewhere() {
+		assertEquals(List.of(), courseNameIndex.search("Elsewhere Course"));
+
+		// A course written by another instance, which reaches this one only as an event
+		jdbcTemplate.update("INSERT INTO courses (id, coursename, department) VALUES (NEXT VALUE FOR courses_seq, 'Elsewhere Course', 'Index')");
+		assertEquals(List.of(), courseNameIndex.search("Elsewhere Course"));
+		eventPublisher.publishEvent(new CoursesChangedEvent());
+
+		assertEquals(1, courseNameIndex.search("Elsewhere Course").size());
+	}
+}
@@ -0,0 +1,223 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataVersionService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.CourseOptionsCacheConfig;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlStatementCounter;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that the course dropdowns are rendered from cached fragments until the course catalog changes,
+ * and that the course options endpoint can be cached by browsers for its catalog version.
+ * <p>
+ * Caffeine fails a loader that loads into the same cache with "Recursive update", but only when both keys share
+ * a bin of its map, so the course options cache fails any such load here, whatever the keys.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:courseoptions",
+		"spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class CourseOptionsTests {
+
+	@TestConfiguration
+	static class NestedLoadConfig {
+
+		@Bean
+		static BeanPostProcessor nestedLoadDetector() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (!(bean instanceof CacheManager cacheManager)) {
+						return bean;
+					}
+					return new CacheManager() {
+						@Override
+						public Cache getCache(String name) {
+							Cache cache = cacheManager.getCache(name);
+							return name.equals(CourseOptionsCacheConfig.COURSE_OPTIONS_CACHE) ? new NestedLoadFailingCache((CaffeineCache) cache) : cache;
+						}
+
+						@Override
+						public Collection<String> getCacheNames() {
+							return cacheManager.getCacheNames();
+						}
+					};
+				}
+			};
+		}
+	}
+
+	static class NestedLoadFailingCache extends CaffeineCache {
+
+		private static final ThreadLocal<Object> LOADING = new ThreadLocal<>();
+
+		NestedLoadFailingCache(CaffeineCache cache) {
+			super(cache.getName(), cache.getNativeCache());
+		}
+
+		@Override
+		public <T> T get(Object key, Callable<T> valueLoader) {
+			return super.get(key, () -> {
+				if (LOADING.get() != null) {
+					throw new IllegalStateException("Loading " + key + " while loading " + LOADING.get());
+				}
+				LOADING.set(key);
+				try {
+					return valueLoader.call();
+				} finally {
+					LOADING.remove();
+				}
+			});
+		}
+	}
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StdService stdService;
+
+	@Autowired
+	private CrService crService;
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
+	@Autowired
+	private SqlStatementCounter statementCounter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Test
+	void cachedDropdownsAreRenderedWithoutQueries() throws Exception {
+		Course course = crService.saveCourse(new Course("Options Course", "Options"));
+		mockMvc.perform(get("/students/new")).andExpect(status().isOk());
+
+		SqlStatementCounter.Scope scope = statementCounter.start("course options");
+		try {
+			mockMvc.perform(get("/students/new"))
+					.andExpect(status().isOk())
+					.andExpect(content().string(containsString("<option value=\"" + course.getId() + "\">Options Course</option>")));
+		} finally {
+			statementCounter.stop(scope);
+		}
+		assertEquals(0, scope.getStatements(), scope.getShapes().toString());
+	}
+
+	@Test
+	void updateFormSelectsTheCoursesOfTheStudent() throws Exception {
+		Course enrolled = crService.saveCourse(new Course("Options Enrolled", "Options"));
+		Course other = crService.saveCourse(new Course("Options Other", "Options"));
+		Student student = new Student("Options", "Student");
+		student.setCourses(new HashSet<>(Set.of(enrolled)));
+		student = stdService.saveStudent(student);
+
+		mockMvc.perform(get("/students/update/{id}", student.getId()))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("<option value=\"" + enrolled.getId() + "\" selected=\"selected\">Options Enrolled</option>")))
+				.andExpect(content().string(containsString("<option value=\"" + other.getId() + "\">Options Other</option>")));
+		mockMvc.perform(get("/students/new"))
+				.andExpect(content().string(containsString("<option value=\"" + enrolled.getId() + "\">Options Enrolled</option>")));
+	}
+
+	@Test
+	void coldDropdownsLoadTheOptionsOutsideTheDropdownLoader() throws Exception {
+		Course course = crService.saveCourse(new Course("Options Cold", "Options"));
+		cacheManager.getCache(CourseOptionsCacheConfig.COURSE_OPTIONS_CACHE).clear();
+
+		mockMvc.perform(get("/students/new"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("<option value=\"" + course.getId() + "\">Options Cold</option>")));
+		mockMvc.perform(get("/students"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("<option value=\"Options Cold\">Options Cold</option>")));
+	}
+
+	@Test
+	void courseWritesChangeTheCatalogVersion() throws Exception {
+		mockMvc.perform(get("/students")).andExpect(status().isOk());
+		long version = dataVersionService.catalogVersion();
+
+		stdService.saveStudent(new Student("Options", "Unrelated"));
+		assertEquals(version, dataVersionService.catalogVersion());
+
+		Course course = crService.saveCourse(new Course("Options Added", "Options"));
+		assertNotEquals(version, dataVersionService.catalogVersion());
+		mockMvc.perform(get("/students"))
+				.andExpect(content().string(containsString("<option value=\"Options Added\">Options Added</option>")));
+
+		crService.deleteCourseById(course.getId());
+		mockMvc.perform(get("/students")).andExpect(content().string(not(containsString("Options Added"))));
+	}
+
+	@Test
+	void courseWritesClearTheDropdownsOfOlderVersions() throws Exception {
+		mockMvc.perform(get("/students/new")).andExpect(status().isOk());
+		long version = dataVersionService.catalogVersion();
+		Cache cache = cacheManager.getCache(CourseOptionsCacheConfig.COURSE_OPTIONS_CACHE);
+		assertNotNull(cache.get(new SimpleKey("byId", version)));
+
+		crService.saveCourse(new Course("Options Cleared", "Options"));
+		assertNull(cache.get(new SimpleKey("byId", version)));
+		assertNull(cache.get(new SimpleKey("options", version)));
+	}
+
+	@Test
+	void versionedOptionsCanBeCachedForGood() throws Exception {
+		Course course = crService.saveCourse(new Course("Options Json", "Options"));
+		long version = dataVersionService.catalogVersion();
+		assertEquals(version, jdbcTemplate.queryForObject("SELECT version FROM data_versions WHERE name = 'courses'", Long.class));
+
+		String etag = mockMvc.perform(get("/api/courses/options").param("v", Long.toString(version)))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+				.andExpect(jsonPath("$[?(@[0] == " + course.getId() + ")][1]").value("Options Json"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertTrue(etag != null && etag.contains(Long.toString(version)), String.valueOf(etag));
+
+		mockMvc.perform(get("/api/courses/options").param("v", "1"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+		mockMvc.perform(get("/api/courses/options").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+	}
+}
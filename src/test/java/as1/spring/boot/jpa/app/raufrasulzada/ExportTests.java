@@ -0,0 +1,165 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies the CSV and NDJSON exports: quoting, students without courses, one CSV row per enrollment,
+ * and that records reach the output while the rows are still being read.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:export",
+		"spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExportTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExportService exportService;
+
+	@Autowired
+	private StudentRepo studentRepo;
+
+	@Autowired
+	private CourseRepo courseRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Student enrolled;
+
+	private Student unenrolled;
+
+	@BeforeAll
+	void seed() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Course quoted = courseRepo.save(new Course("Export, \"Quoted\"", "Export"));
+			Course plain = courseRepo.save(new Course("Export Plain", "Export"));
+			Student student = new Student("Export", "Enrolled");
+			student.setCourses(new HashSet<>(Set.of(quoted, plain)));
+			enrolled = studentRepo.save(student);
+			unenrolled = studentRepo.save(new Student("Export", "Line\nBreak"));
+		});
+	}
+
+	@Test
+	void csvHasOneQuotedRowPerEnrollment() throws Exception {
+		String csv = mockMvc.perform(get("/students/export"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Disposition", containsString("students.csv")))
+				.andExpect(content().contentTypeCompatibleWith("text/csv"))
+				.andReturn().getResponse().getContentAsString();
+
+		assertTrue(csv.startsWith("id,firstName,lastName,courseName\n"));
+		assertTrue(csv.contains(enrolled.getId() + ",Export,Enrolled,\"Export, \"\"Quoted\"\"\"\n"));
+		assertTrue(csv.contains(enrolled.getId() + ",Export,Enrolled,Export Plain\n"));
+		assertTrue(csv.contains(unenrolled.getId() + ",Export,\"Line\nBreak\",\n"));
+	}
+
+	@Test
+	void ndjsonHasOneRecordPerStudent() throws Exception {
+		String ndjson = mockMvc.perform(get("/students/export").param("format", "ndjson"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		JsonNode enrolledRecord = null;
+		JsonNode unenrolledRecord = null;
+		for (String line : ndjson.split("\n")) {
+			JsonNode record = objectMapper.readTree(line);
+			if (record.get("id").asLong() == enrolled.getId()) {
+				enrolledRecord = record;
+			} else if (record.get("id").asLong() == unenrolled.getId()) {
+				unenrolledRecord = record;
+			}
+		}
+		assertEquals(List.of("Export Plain", "Export, \"Quoted\""),
+				objectMapper.convertValue(enrolledRecord.get("courses"), List.class));
+		assertEquals(0, unenrolledRecord.get("courses").size());
+		assertEquals("Line\nBreak", unenrolledRecord.get("lastName").asText());
+	}
+
+	@Test
+	void coursesAreQuoted() throws Exception {
+		mockMvc.perform(get("/courses/export"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString(",\"Export, \"\"Quoted\"\"\",Export\n")));
+		mockMvc.perform(get("/courses/export").param("format", "xml")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void recordsAreWrittenWhileTheRowsAreRead() {
+		jdbcTemplate.update("INSERT INTO students (id, firstname, lastname) " +
+				"SELECT NEXT VALUE FOR students_seq, 'Streamed', CAST(x AS VARCHAR) FROM SYSTEM_RANGE(1, 5000)");
+		WriteCountingStream output = new WriteCountingStream();
+
+		exportService.exportStudents(DataFormat.CSV, output);
+
+		// Every write but the last flush happens inside the read transaction, with the cursor still open
+		assertTrue(output.writesInTransaction > 10, "expected the export to be written in parts but got " + output.writesInTransaction);
+		assertTrue(output.bytes > 5000 * "Streamed".length());
+		jdbcTemplate.update("DELETE FROM students WHERE firstname = 'Streamed'");
+	}
+
+	/**
+	 * Counts the bytes written and the writes made inside a transaction.
+	 */
+	private static class WriteCountingStream extends OutputStream {
+
+		private long bytes;
+
+		private int writesInTransaction;
+
+		@Override
+		public void write(int b) {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			bytes += len;
+			if (TransactionSynchronizationManager.isActualTransactionActive()) {
+				writesInTransaction++;
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies the "fast-startup" profile: the application starts on the versioned schema script,
+ * which Hibernate validates against the entities, and without the sample data.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:faststartup"
+})
+@ActiveProfiles("fast-startup")
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class FastStartupTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private StdService stdService;
+
+	@Autowired
+	private CrService crService;
+
+	@Test
+	void startsOnTheSchemaScriptWithoutSampleData() throws Exception {
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM courses WHERE coursename = 'Calculus I'", Long.class));
+
+		Course course = crService.saveCourse(new Course("Fast Startup Course", "Startup"));
+		Student student = new Student("Fast", "Startup");
+		student.setCourses(new HashSet<>(Set.of(course)));
+		stdService.saveStudent(student);
+
+		mockMvc.perform(get("/students").param("courseName", "Fast Startup Course"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("Startup")));
+	}
+
+	@Test
+	void schemaScriptLeavesAnExistingSchemaAlone() {
+		crService.saveCourse(new Course("Fast Startup Kept", "Startup"));
+
+		new ResourceDatabasePopulator(new ClassPathResource("db/schema-v2.sql")).execute(dataSource);
+
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM courses WHERE coursename = 'Fast Startup Kept'", Long.class));
+	}
+}
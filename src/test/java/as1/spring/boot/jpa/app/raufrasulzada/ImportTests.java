@@ -0,0 +1,178 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportKind;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportReport;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that bulk imports skip and report bad rows, write in batches and keep going after a failed batch,
+ * and that the command-line import reports rejected rows through its exit code and runs without a web server
+ * or the sample data.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:import",
+		"spring.jpa.show-sql=false",
+		"import.batch-size=2"
+})
+class ImportTests {
+
+	@Autowired
+	private ImportService importService;
+
+	@Autowired
+	private ImportCommandLineRunner importCommandLineRunner;
+
+	@Autowired
+	private StudentRepo studentRepo;
+
+	@Autowired
+	private CourseRepo courseRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void malformedRowsAreReportedAndSkipped() {
+		ImportReport report = importCsv(ImportKind.STUDENTS, """
+				firstName,lastName
+				Malformed,One
+				Malformed,Two,Extra
+				"Malformed,Three
+				,Four
+				"Malformed, Five",Five
+				""");
+
+		assertEquals(5, report.getRowsRead());
+		assertEquals(2, report.getRowsImported());
+		assertEquals(3, report.getFailedRows());
+		assertEquals(List.of(3L, 4L, 5L), report.getErrors().stream().map(ImportReport.RowError::line).toList());
+		assertTrue(studentRepo.findAll().stream().anyMatch(student -> student.getFirstName().equals("Malformed, Five")));
+	}
+
+	@Test
+	void malformedJsonLinesAreReportedAndSkipped() {
+		ImportReport report = importRecords(ImportKind.STUDENTS, DataFormat.NDJSON, """
+				{"firstName": "Json", "lastName": "One"}
+				{"firstName": "Json",
+				["Json", "Three"]
+				{"firstName": "Json", "lastName": "Four"}
+				""");
+
+		assertEquals(2, report.getRowsImported());
+		assertEquals(List.of(2L, 3L), report.getErrors().stream().map(ImportReport.RowError::line).toList());
+	}
+
+	@Test
+	void duplicateCoursesAreRejected() {
+		courseRepo.save(new Course("Duplicate Existing", "Import"));
+
+		ImportReport report = importCsv(ImportKind.COURSES, """
+				courseName,department
+				Duplicate Existing,Import
+				Duplicate New,Import
+				Duplicate New,Other
+				""");
+
+		assertEquals(1, report.getRowsImported());
+		assertEquals(2, report.getFailedRows());
+		assertEquals("Import", courseRepo.findCourseByCourseName("Duplicate New").getDepartment());
+	}
+
+	@Test
+	void enrollmentsOfUnknownCoursesAndStudentsAreRejected() {
+		Course course = courseRepo.save(new Course("Enrollment Course", "Import"));
+		Student student = studentRepo.save(new Student("Enrolled", "Student"));
+
+		ImportReport report = importCsv(ImportKind.ENROLLMENTS, """
+				studentId,courseName
+				%d,Enrollment Course
+				%d,No Such Course
+				%d,Enrollment Course
+				not a number,Enrollment Course
+				""".formatted(student.getId(), student.getId(), Long.MAX_VALUE));
+
+		assertEquals(1, report.getRowsImported());
+		assertEquals(3, report.getFailedRows());
+		assertTrue(report.getErrors().get(0).message().contains("No Such Course"));
+		assertEquals(List.of(course.getId()), jdbcTemplate.queryForList(
+				"SELECT courseid FROM studentcourse WHERE studentid = ?", Long.class, student.getId()));
+	}
+
+	@Test
+	void aFailedBatchDoesNotStopTheImport() {
+		// With batches of two rows, the second batch holds the name that is too long for its column
+		ImportReport report = importCsv(ImportKind.COURSES, """
+				courseName,department
+				Batch 1,Import
+				Batch 2,Import
+				Batch 3 %s,Import
+				Batch 4,Import
+				Batch 5,Import
+				""".formatted("x".repeat(300)));
+
+		assertEquals(5, report.getRowsRead());
+		assertEquals(3, report.getRowsImported());
+		assertEquals(List.of(4L, 5L), report.getErrors().stream().map(ImportReport.RowError::line).toList());
+		assertTrue(report.getErrors().get(0).message().startsWith("Batch failed"));
+		assertNull(courseRepo.findCourseByCourseName("Batch 4"));
+		assertNotNull(courseRepo.findCourseByCourseName("Batch 5"));
+	}
+
+	@Test
+	void commandLineImportsSetTheExitCode(@TempDir Path directory) throws Exception {
+		Path valid = Files.writeString(directory.resolve("valid.csv"), "firstName,lastName\nExit,Zero\n");
+		Path invalid = Files.writeString(directory.resolve("invalid.ndjson"), "{\"firstName\": \"Exit\"}\n");
+
+		importCommandLineRunner.run(new DefaultApplicationArguments("--import.students=" + valid));
+		assertTrue(importCommandLineRunner.isImportRequested());
+		assertEquals(0, importCommandLineRunner.getExitCode());
+
+		importCommandLineRunner.run(new DefaultApplicationArguments("--import.students=" + invalid));
+		assertEquals(1, importCommandLineRunner.getExitCode());
+	}
+
+	@Test
+	void commandLineImportsRunWithoutWebServerOrSampleData(@TempDir Path directory) throws Exception {
+		Path courses = Files.writeString(directory.resolve("courses.csv"), "courseName,department\nCommand Line,Import\n");
+		String[] args = {"--import.courses=" + courses, "--spring.datasource.url=jdbc:h2:mem:commandlineimport", "--spring.jpa.show-sql=false"};
+
+		try (ConfigurableApplicationContext context = RaufRasulzadaApplication.application(args).run(args)) {
+			assertFalse(context instanceof WebApplicationContext);
+			assertEquals(List.of("Command Line"), context.getBean(CourseRepo.class).findAll().stream().map(Course::getCourseName).toList());
+			assertEquals(0, context.getBean(StudentRepo.class).count());
+		}
+	}
+
+	private ImportReport importCsv(ImportKind kind, String csv) {
+		return importRecords(kind, DataFormat.CSV, csv);
+	}
+
+	private ImportReport importRecords(ImportKind kind, DataFormat format, String input) {
+		return importService.importRecords(kind, format, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+	}
+}
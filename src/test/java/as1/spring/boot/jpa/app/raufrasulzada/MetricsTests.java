@@ -0,0 +1,84 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that service methods, student searches, requests, caches, Hibernate and the connection pool are instrumented.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metrics")
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class MetricsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private CrService crService;
+
+	@Test
+	void studentListingIsMeasuredAtEveryLayer() throws Exception {
+		mockMvc.perform(get("/students").param("firstName", "First").param("courseName", "Calc"))
+				.andExpect(status().isOk());
+
+		Timer serviceTimer = meterRegistry.find("service.method").tag("method", "retrieveStudents").timer();
+		assertNotNull(serviceTimer);
+		assertTrue(serviceTimer.count() > 0);
+		Timer searchTimer = meterRegistry.find("students.search").tag("filters", "firstName+courseName").timer();
+		assertNotNull(searchTimer);
+		assertTrue(searchTimer.count() > 0);
+		DistributionSummary statements = meterRegistry.find("http.server.requests.statements").tag("uri", "/students").summary();
+		assertNotNull(statements);
+		assertTrue(statements.totalAmount() > 0);
+
+		assertNotNull(meterRegistry.find("hibernate.statements").meter());
+		assertNotNull(meterRegistry.find("hikaricp.connections.active").meter());
+	}
+
+	@Test
+	void metricsEndpointListsTheMeters() throws Exception {
+		mockMvc.perform(get("/students"));
+		mockMvc.perform(get("/actuator/metrics/http.server.requests.statements"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.measurements[0].value").isNumber());
+	}
+
+	@Test
+	void catalogCachesCountHitsAndMisses() {
+		crService.saveCourse(new Course("Metrics Course", "Metrics"));
+		double hits = cacheGets("departments", "hit");
+		double misses = cacheGets("departments", "miss");
+
+		crService.retrieveAllDepartments();
+		crService.retrieveAllDepartments();
+
+		assertEquals(misses + 1, cacheGets("departments", "miss"));
+		assertEquals(hits + 1, cacheGets("departments", "hit"));
+	}
+
+	private double cacheGets(String cache, String result) {
+		FunctionCounter gets = meterRegistry.find("cache.gets").tag("cache", cache).tag("result", result).functionCounter();
+		assertNotNull(gets);
+		return gets.count();
+	}
+}
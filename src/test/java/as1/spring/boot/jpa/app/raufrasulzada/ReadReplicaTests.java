@@ -0,0 +1,157 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentFilter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that read-only service calls are served by the replica and writes by the primary database,
+ * and that reads after a write are served by the primary until the replica has caught up.
+ * <p>
+ * The replica is a second in-memory H2 database, brought up to date by copying the primary into it,
+ * so it lags behind every write until the test has replicated it.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:readreplica-primary",
+		"spring.datasource.replica.url=jdbc:h2:mem:readreplica-replica",
+		"spring.datasource.replica.lag-check-interval=0s",
+		"data-versions.poll-interval=PT1H",
+		"spring.jpa.show-sql=false"
+})
+class ReadReplicaTests {
+
+	@Autowired
+	private StdService stdService;
+
+	@Autowired
+	private CrService crService;
+
+	@Autowired
+	@Qualifier("writeDataSource")
+	private DataSource writeDataSource;
+
+	@Autowired
+	@Qualifier("readDataSource")
+	private DataSource readDataSource;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@BeforeEach
+	void replicate() {
+		JdbcTemplate replica = new JdbcTemplate(readDataSource);
+		replica.execute("DROP ALL OBJECTS");
+		new JdbcTemplate(writeDataSource).queryForList("SCRIPT", String.class).stream()
+				.filter(statement -> !statement.startsWith("--"))
+				.forEach(replica::execute);
+	}
+
+	@Test
+	void readsAreServedByTheReplica() {
+		new JdbcTemplate(readDataSource).update("INSERT INTO students (id, firstname, lastname) VALUES (NEXT VALUE FOR students_seq, 'Replica', 'Only')");
+		StudentFilter filter = StudentFilter.builder().lastName("Only").build();
+		assertEquals(1, stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getTotalElements());
+	}
+
+	@Test
+	void ownWritesAreReadFromThePrimary() {
+		stdService.saveStudent(new Student("Replica", "Pending"));
+		StudentFilter filter = StudentFilter.builder().lastName("Pending").build();
+		assertEquals(0, countStudents(readDataSource, "Pending"));
+		assertEquals(1, stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getTotalElements());
+
+		replicate();
+		assertEquals(1, stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getTotalElements());
+	}
+
+	@Test
+	void cachesAreNotRefilledFromALaggingReplica() {
+		Course course = crService.saveCourse(new Course("Replica Cached", "Replica"));
+		Student student = stdService.saveStudent(new Student("Replica", "Cached"));
+		replicate();
+		StudentFilter filter = StudentFilter.builder().courseName("Replica Renamed").build();
+		assertEquals("Replica Cached", crService.retrieveCourseById(course.getId()).getCourseName());
+		assertEquals(0, stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getTotalElements());
+
+		Course renamed = new Course("Replica Renamed", "Replica");
+		renamed.setId(course.getId());
+		crService.updateCourse(renamed);
+		Student enrolled = stdService.retrieveStudentById(student.getId());
+		enrolled.setCourses(crService.retrieveCoursesByIds(Set.of(course.getId())));
+		stdService.updateStudent(enrolled);
+
+		// The replica still holds the old rows, which the caches cleared by the writes must not be refilled with
+		assertEquals("Replica Cached", new JdbcTemplate(readDataSource).queryForObject(
+				"SELECT coursename FROM courses WHERE id = ?", String.class, course.getId()));
+		for (int read = 0; read < 2; read++) {
+			assertEquals("Replica Renamed", crService.retrieveCourseById(course.getId()).getCourseName());
+			assertTrue(crService.retrieveCourseOptions().stream().anyMatch(option -> option.name().equals("Replica Renamed")));
+			assertEquals(1, stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getTotalElements());
+			assertEquals(Set.of(course.getId()), stdService.retrieveStudentById(student.getId()).getCourses().stream()
+					.map(Course::getId).collect(Collectors.toSet()));
+		}
+
+		replicate();
+		assertEquals("Replica Renamed", crService.retrieveCourseById(course.getId()).getCourseName());
+		assertEquals(1, stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getTotalElements());
+	}
+
+	@Test
+	void writesGoToThePrimary() {
+		Course course = crService.saveCourse(new Course("Replica Course", "Replica"));
+		assertEquals(1, countCourses(writeDataSource, course.getId()));
+		assertEquals(0, countCourses(readDataSource, course.getId()));
+	}
+
+	@Test
+	void studentsReadFromTheReplicaCanBeUpdated() {
+		Course course = crService.saveCourse(new Course("Replica Enrollment", "Replica"));
+		Student student = stdService.saveStudent(new Student("Replica", "Original"));
+		replicate();
+
+		Student read = stdService.retrieveStudentById(student.getId());
+		read.setLastName("Renamed");
+		read.setCourses(crService.retrieveCoursesByIds(Set.of(course.getId())));
+		stdService.updateStudent(read);
+
+		assertEquals("Renamed", new JdbcTemplate(writeDataSource).queryForObject(
+				"SELECT lastname FROM students WHERE id = ?", String.class, student.getId()));
+		assertEquals(1, new JdbcTemplate(writeDataSource).queryForObject(
+				"SELECT COUNT(*) FROM studentcourse WHERE studentid = ?", Integer.class, student.getId()));
+	}
+
+	@Test
+	void readsDoNotFlush() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		long flushes = statistics.getFlushCount();
+		assertTrue(stdService.retrieveStudents(new StudentFilter(), PageRequest.of(0, 5)).hasContent());
+		assertEquals(flushes, statistics.getFlushCount());
+	}
+
+	private static int countStudents(DataSource dataSource, String lastName) {
+		return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM students WHERE lastname = ?", Integer.class, lastName);
+	}
+
+	private static int countCourses(DataSource dataSource, Long id) {
+		return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM courses WHERE id = ?", Integer.class, id);
+	}
+}
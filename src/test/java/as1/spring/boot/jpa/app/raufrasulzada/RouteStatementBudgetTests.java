@@ -0,0 +1,235 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.SqlBudgetExceededException;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlBudget;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the SQL statement budget of every route of the web controller.
+ * <p>
+ * Violations fail the request here, so a change that adds statements to a route, or reintroduces
+ * an N+1 pattern, fails the test of that route. The budgets are for a cold course cache, and a route
+ * without a budget of its own may not issue any statement, so new routes have to be pinned as well.
+ * Saving a student re-reads the chosen courses in the write transaction, since the controller's own
+ * reads may come from a replica. Every write increases its data version with one more statement; deleting
+ * a course increases both, since it removes enrollments too.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:statementbudget",
+		"spring.jpa.show-sql=false",
+		"sql-budget.fail-on-violation=true",
+		"sql-budget.per-request=0",
+		"sql-budget.per-service-call=4",
+		"sql-budget.repeated-statements=3",
+		"sql-budget.routes[/homepage]=0",
+		"sql-budget.routes[/students]=6",
+		"sql-budget.routes[/courses]=3",
+		"sql-budget.routes[/students/new]=1",
+		"sql-budget.routes[/courses/new]=0",
+		"sql-budget.routes[/students/update/{id}]=6",
+		"sql-budget.routes[/courses/update/{id}]=2",
+		"sql-budget.routes[/students/{id}]=4",
+		"sql-budget.routes[/courses/{id}]=4",
+		"sql-budget.routes[/students/byCourse/{courseName}]=1",
+		// One more than the search itself: the first search by course name loads the course name index
+		"sql-budget.routes[/api/students]=3",
+		"sql-budget.routes[/api/courses]=1",
+		"sql-budget.routes[/api/courses/options]=1"
+})
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RouteStatementBudgetTests {
+
+	private static final int STUDENTS = 12;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StudentRepo studentRepo;
+
+	@Autowired
+	private CourseRepo courseRepo;
+
+	@Autowired
+	private SqlStatementCounter statementCounter;
+
+	@Autowired
+	private SqlBudget sqlBudget;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final List<Course> courses = new ArrayList<>();
+
+	@BeforeAll
+	void seedStudents() {
+		transactionTemplate.executeWithoutResult(status -> {
+			for (int i = 0; i < 4; i++) {
+				courses.add(courseRepo.save(new Course("Budget Course " + i, "Budget " + i % 2)));
+			}
+			for (int i = 0; i < STUDENTS; i++) {
+				Student student = new Student("Budget", "Student " + i);
+				student.setCourses(new HashSet<>(courses.subList(0, 3)));
+				studentRepo.save(student);
+			}
+		});
+	}
+
+	@Test
+	void homepage() throws Exception {
+		mockMvc.perform(get("/homepage")).andExpect(status().isOk());
+	}
+
+	@Test
+	void listStudents() throws Exception {
+		mockMvc.perform(get("/students")).andExpect(status().isOk());
+		mockMvc.perform(get("/students").param("page", "1")).andExpect(status().isOk());
+		mockMvc.perform(get("/students").param("firstName", "Budget").param("courseName", "Budget Course"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/students").param("after", "")).andExpect(status().isOk());
+	}
+
+	@Test
+	void listCourses() throws Exception {
+		mockMvc.perform(get("/courses")).andExpect(status().isOk());
+		mockMvc.perform(get("/courses").param("courseName", "Budget").param("courseDepartment", "Budget 0"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/courses").param("after", "")).andExpect(status().isOk());
+	}
+
+	@Test
+	void malformedCursorsAreRejected() throws Exception {
+		mockMvc.perform(get("/students").param("after", "not a cursor")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/courses").param("after", "not a cursor")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void newForms() throws Exception {
+		mockMvc.perform(get("/students/new")).andExpect(status().isOk());
+		mockMvc.perform(get("/courses/new")).andExpect(status().isOk());
+	}
+
+	@Test
+	void saveStudent() throws Exception {
+		mockMvc.perform(post("/students").param("firstName", "Budget").param("lastName", "Student 0")
+						.param("courseIds", courses.get(0).getId().toString(), courses.get(3).getId().toString()))
+				.andExpect(status().is3xxRedirection());
+		mockMvc.perform(post("/students").param("firstName", "Budget").param("lastName", "Newcomer")
+						.param("courseIds", courses.get(1).getId().toString(), courses.get(2).getId().toString()))
+				.andExpect(status().is3xxRedirection());
+	}
+
+	@Test
+	void saveCourse() throws Exception {
+		mockMvc.perform(post("/courses").param("courseName", "Budget Course 0").param("department", "Budget 0"))
+				.andExpect(status().is3xxRedirection());
+		mockMvc.perform(post("/courses").param("courseName", "Budget Course New").param("department", "Budget 1"))
+				.andExpect(status().is3xxRedirection());
+	}
+
+	@Test
+	void updateStudent() throws Exception {
+		Student student = studentRepo.save(new Student("Budget", "Updated"));
+		mockMvc.perform(get("/students/update/{id}", student.getId())).andExpect(status().isOk());
+		mockMvc.perform(post("/students/update/{id}", student.getId()).param("firstName", "Budget").param("lastName", "Updated")
+						.param("courseIds", courses.get(0).getId().toString(), courses.get(1).getId().toString()))
+				.andExpect(status().is3xxRedirection());
+	}
+
+	@Test
+	void updateCourse() throws Exception {
+		Course course = courseRepo.save(new Course("Budget Course Renamed", "Budget 1"));
+		mockMvc.perform(get("/courses/update/{id}", course.getId())).andExpect(status().isOk());
+		mockMvc.perform(post("/courses/update/{id}", course.getId()).param("courseName", "Budget Course Renamed Again"))
+				.andExpect(status().is3xxRedirection());
+	}
+
+	@Test
+	void deleteStudent() throws Exception {
+		Student student = transactionTemplate.execute(status -> {
+			Student deleted = new Student("Budget", "Deleted");
+			deleted.setCourses(new HashSet<>(courseRepo.findAllById(courses.stream().map(Course::getId).toList())));
+			return studentRepo.save(deleted);
+		});
+		mockMvc.perform(get("/students/{id}", student.getId())).andExpect(status().is3xxRedirection());
+	}
+
+	@Test
+	void deleteCourse() throws Exception {
+		Course course = courseRepo.save(new Course("Budget Course Deleted", "Budget 1"));
+		mockMvc.perform(get("/courses/{id}", course.getId())).andExpect(status().is3xxRedirection());
+	}
+
+	@Test
+	void studentsByCourse() throws Exception {
+		mockMvc.perform(get("/students/byCourse/{courseName}", "Budget Course 1"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("Budget Course 0")));
+	}
+
+	@Test
+	void apiListings() throws Exception {
+		mockMvc.perform(get("/api/students").param("courseName", "Budget Course")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/students").param("sortField", "lastName").param("size", "5")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/courses").param("courseDepartment", "Budget 0")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/courses/options")).andExpect(status().isOk());
+	}
+
+	@Test
+	void serviceCallsAreMeasured() throws Exception {
+		mockMvc.perform(get("/students/byCourse/{courseName}", "Budget Course 2")).andExpect(status().isOk());
+		DistributionSummary statements = meterRegistry.find("service.method.statements")
+				.tag("method", "findStudentByCourseName").summary();
+		assertNotNull(statements);
+		assertTrue(statements.count() > 0);
+	}
+
+	@Test
+	void repeatedStatementsAreReportedWithTheirCallSite() {
+		SqlStatementCounter.Scope scope = statementCounter.start("repeated lookup test");
+		try {
+			transactionTemplate.executeWithoutResult(status ->
+					studentRepo.findAll().forEach(student -> studentRepo.findWithCoursesById(student.getId())));
+		} finally {
+			statementCounter.stop(scope);
+		}
+		SqlBudgetExceededException exception = assertThrows(SqlBudgetExceededException.class,
+				() -> sqlBudget.check(scope, Integer.MAX_VALUE));
+		assertEquals(scope.getStatements(), exception.getStatements());
+		assertTrue(exception.getMessage().contains("possible N+1"), exception.getMessage());
+		assertTrue(exception.getMessage().contains(RouteStatementBudgetTests.class.getName()), exception.getMessage());
+	}
+}
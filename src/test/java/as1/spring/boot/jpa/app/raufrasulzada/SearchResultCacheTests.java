@@ -0,0 +1,238 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.CourseNameIndex;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlStatementCounter;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Verifies that repeated searches are answered from the search result cache, that writes
+ * clear exactly the cached results they can have changed, and that a search overlapping a write
+ * does not cache its result.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:searchresultcache",
+		"spring.jpa.show-sql=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SearchResultCacheTests {
+
+	private static final int STUDENTS = 8;
+
+	@Autowired
+	private StdService stdService;
+
+	@Autowired
+	private CrService crService;
+
+	@Autowired
+	private StudentRepo studentRepo;
+
+	@Autowired
+	private CourseRepo courseRepo;
+
+	@Autowired
+	private SqlStatementCounter statementCounter;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@SpyBean
+	private CourseNameIndex courseNameIndex;
+
+	private final List<Course> courses = new ArrayList<>();
+
+	@BeforeAll
+	void seedStudents() {
+		transactionTemplate.executeWithoutResult(status -> {
+			for (int i = 0; i < 2; i++) {
+				courses.add(courseRepo.save(new Course("Search Course " + i, "Search")));
+			}
+			for (int i = 0; i < STUDENTS; i++) {
+				Student student = new Student("Search", "Student " + i);
+				student.setCourses(new HashSet<>(courses.subList(0, 1 + i % 2)));
+				studentRepo.save(student);
+			}
+		});
+	}
+
+	@Test
+	void repeatedStudentSearchesOnlyReadTheStudentsById() {
+		StudentFilter filter = new StudentFilter("Search", null, "Search Course 1");
+		PageRequest pageable = PageRequest.of(0, 3, Sort.by("lastName"));
+		Page<Student> first = stdService.retrieveStudents(filter, pageable);
+
+		Page<Student> second = countStatements(1, () -> stdService.retrieveStudents(filter, pageable));
+
+		assertEquals(ids(first), ids(second));
+		assertEquals(STUDENTS / 2, second.getTotalElements());
+		assertEquals("Student 1", second.getContent().get(0).getLastName());
+		assertEquals(2, second.getContent().get(0).getCourses().size());
+	}
+
+	@Test
+	void repeatedCourseSearchesAreServedFromCaches() {
+		PageRequest pageable = PageRequest.of(0, 5, Sort.by("courseName"));
+		Page<Course> first = crService.retrieveCoursesByDepartment("Search", pageable);
+
+		Page<Course> second = countStatements(0, () -> crService.retrieveCoursesByDepartment("Search", pageable));
+
+		assertEquals(ids(first), ids(second));
+		assertTrue(meterRegistry.get("cache.search.hit.ratio").tag("cache", "courseSearches").gauge().value() > 0);
+	}
+
+	@Test
+	void courseNameSearchesIgnoringSurroundingBlanksShareTheirResults() {
+		PageRequest pageable = PageRequest.of(0, 5, Sort.by("courseName"));
+		Page<Course> first = crService.retrieveCoursesByCourseName("Search Course 1", pageable);
+
+		Page<Course> second = countStatements(0, () -> crService.retrieveCoursesByCourseName(" Search Course 1 ", pageable));
+
+		assertEquals(ids(first), ids(second));
+		assertEquals(List.of(courses.get(1).getId()), ids(second));
+		assertEquals(List.of(), ids(crService.retrieveCoursesByCourseName("search course 1", pageable)));
+	}
+
+	@Test
+	void departmentSearchesIgnoringSurroundingBlanksShareTheirResults() {
+		PageRequest pageable = PageRequest.of(0, 5, Sort.by("courseName"));
+		Page<Course> first = crService.retrieveCoursesByDepartment("Search", pageable);
+
+		Page<Course> second = countStatements(0, () -> crService.retrieveCoursesByDepartment(" Search ", pageable));
+
+		assertEquals(ids(first), ids(second));
+		Page<Course> byNameAndDepartment = crService.retrieveCoursesByCourseNameAndDepartment("Search Course 0", "Search", pageable);
+		assertEquals(List.of(courses.get(0).getId()), ids(byNameAndDepartment));
+		assertEquals(ids(byNameAndDepartment), ids(countStatements(0,
+				() -> crService.retrieveCoursesByCourseNameAndDepartment(" Search Course 0", "Search ", pageable))));
+	}
+
+	@Test
+	void resultsOfSearchesOverlappingAWriteAreNotCached() {
+		PageRequest pageable = PageRequest.of(0, 5, Sort.by("courseName"));
+		List<Course> added = new ArrayList<>();
+		// The course is saved and committed on another thread once the search has matched the course names
+		doAnswer(invocation -> {
+			Object ids = invocation.callRealMethod();
+			if (added.isEmpty()) {
+				added.add(CompletableFuture.supplyAsync(() -> crService.saveCourse(new Course("Search Overlap Added", "Overlap"))).join());
+			}
+			return ids;
+		}).when(courseNameIndex).search("Search Overlap");
+		crService.saveCourse(new Course("Search Overlap", "Overlap"));
+
+		assertEquals(1, crService.retrieveCoursesByCourseName("Search Overlap", pageable).getTotalElements());
+
+		assertEquals(2, crService.retrieveCoursesByCourseName("Search Overlap", pageable).getTotalElements());
+		assertEquals(1, added.size());
+	}
+
+	@Test
+	void studentWritesClearStudentSearches() {
+		StudentFilter filter = new StudentFilter("Search Writes", null, null);
+		assertEquals(0, stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getTotalElements());
+		crService.retrieveCoursesByDepartment("Search", PageRequest.of(0, 5));
+
+		Student student = stdService.saveStudent(new Student("Search Writes", "Saved"));
+		assertEquals(1, stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getTotalElements());
+		assertTrue(cacheSize("courseSearches") > 0);
+
+		stdService.deleteStudentById(student.getId());
+		assertEquals(0, stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getTotalElements());
+	}
+
+	@Test
+	void studentWritesClearListingTotalsOnceCommitted() {
+		transactionTemplate.executeWithoutResult(status -> {
+			stdService.saveStudent(new Student("Search Totals", "Saved"));
+			// A total counted by another request before the write commits
+			cacheManager.getCache("resultCounts").put("Search Totals", 0L);
+			assertEquals(1, cacheSize("resultCounts"));
+		});
+
+		assertEquals(0, cacheSize("resultCounts"));
+	}
+
+	@Test
+	void courseWritesOnlyClearSearchesDependingOnCourses() {
+		StudentFilter byName = new StudentFilter("Search", null, null);
+		StudentFilter byCourse = new StudentFilter(null, null, "Search Course");
+		stdService.retrieveStudents(byName, PageRequest.of(0, 5));
+		stdService.retrieveStudents(byCourse, PageRequest.of(0, 5));
+		long studentSearches = cacheSize("studentSearches");
+
+		Course course = crService.saveCourse(new Course("Search Course Added", "Search"));
+
+		assertEquals(studentSearches, cacheSize("studentSearches"));
+		assertEquals(0, cacheSize("studentSearchesByCourse"));
+		assertEquals(0, cacheSize("courseSearches"));
+		assertTrue(ids(crService.retrieveCoursesByDepartment("Search", PageRequest.of(0, 10))).contains(course.getId()));
+	}
+
+	@Test
+	void removingTheEnrollmentsOfACourseClearsStudentSearchesOnly() {
+		Course course = crService.saveCourse(new Course("Search Course Unenrolled", "Search"));
+		stdService.retrieveStudents(new StudentFilter("Search", null, null), PageRequest.of(0, 5));
+		crService.retrieveCoursesByDepartment("Search", PageRequest.of(0, 5));
+		long courseSearches = cacheSize("courseSearches");
+
+		crService.updateStudentsWhenCourseDeleted(course.getId());
+
+		assertEquals(0, cacheSize("studentSearches"));
+		assertEquals(courseSearches, cacheSize("courseSearches"));
+	}
+
+	private <T> T countStatements(int expected, Supplier<T> search) {
+		SqlStatementCounter.Scope scope = statementCounter.start("cached search");
+		try {
+			return search.get();
+		} finally {
+			statementCounter.stop(scope);
+			assertEquals(expected, scope.getStatements(), scope.getShapes().toString());
+		}
+	}
+
+	private long cacheSize(String cacheName) {
+		CaffeineCache cache = (CaffeineCache) cacheManager.getCache(cacheName);
+		cache.getNativeCache().cleanUp();
+		return cache.getNativeCache().estimatedSize();
+	}
+
+	private static List<Long> ids(Page<?> page) {
+		return page.getContent().stream().map(entity -> entity instanceof Student student ? student.getId() : ((Course) entity).getId()).toList();
+	}
+}
@@ -0,0 +1,177 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.DataFormat;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.SqlStatementCounter;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportKind;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.ImportService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that courses, the course sets of students and course lookups by name are served by the
+ * second-level cache, and that writes, bulk deletes and imports keep it coherent.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:secondlevelcache",
+		"spring.jpa.show-sql=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SecondLevelCacheTests {
+
+	private static final int STUDENTS = 6;
+
+	@Autowired
+	private StdService stdService;
+
+	@Autowired
+	private CrService crService;
+
+	@Autowired
+	private ImportService importService;
+
+	@Autowired
+	private StudentRepo studentRepo;
+
+	@Autowired
+	private CourseRepo courseRepo;
+
+	@Autowired
+	private SqlStatementCounter statementCounter;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final List<Course> courses = new ArrayList<>();
+
+	@BeforeAll
+	void seedStudents() {
+		transactionTemplate.executeWithoutResult(status -> {
+			for (int i = 0; i < 3; i++) {
+				courses.add(courseRepo.save(new Course("Cached Course " + i, "Cached")));
+			}
+			for (int i = 0; i < STUDENTS; i++) {
+				Student student = new Student("Cached", "Student " + i);
+				student.setCourses(new HashSet<>(courses.subList(0, 2)));
+				studentRepo.save(student);
+			}
+		});
+	}
+
+	@Test
+	void warmListingsReadCourseSetsFromTheCache() {
+		StudentFilter filter = StudentFilter.builder().firstName("Cached").build();
+		stdService.retrieveStudents(filter, PageRequest.of(0, 10));
+		double hits = cacheHits("student-courses");
+
+		SqlStatementCounter.Scope scope = statementCounter.start("warm listing");
+		Page<Student> page;
+		try {
+			page = stdService.retrieveStudents(filter, PageRequest.of(0, 10));
+		} finally {
+			statementCounter.stop(scope);
+		}
+
+		assertEquals(STUDENTS, page.getNumberOfElements());
+		page.forEach(student -> assertEquals(Set.of("Cached Course 0", "Cached Course 1"), courseNames(student)));
+		assertEquals(1, scope.getStatements(), scope.getShapes().toString());
+		assertTrue(scope.getShapes().keySet().stream().noneMatch(sql -> sql.contains("studentcourse")), scope.getShapes().toString());
+		assertEquals(hits + STUDENTS, cacheHits("student-courses"));
+		assertTrue(cacheHits("course") > 0);
+	}
+
+	@Test
+	void courseLookupsByNameUseTheQueryCache() {
+		Course course = crService.saveCourse(new Course("Cached Lookup", "Cached"));
+		courseRepo.findCourseByCourseName("Cached Lookup");
+
+		SqlStatementCounter.Scope scope = statementCounter.start("cached lookup");
+		try {
+			assertEquals(course.getId(), courseRepo.findCourseByCourseName("Cached Lookup").getId());
+		} finally {
+			statementCounter.stop(scope);
+		}
+		assertEquals(0, scope.getStatements(), scope.getShapes().toString());
+		assertTrue(meterRegistry.get("hibernate.cache.query.requests").tag("result", "hit").functionCounter().count() > 0);
+
+		course.setCourseName("Cached Lookup Renamed");
+		crService.updateCourse(course);
+		assertNull(courseRepo.findCourseByCourseName("Cached Lookup"));
+		assertEquals(course.getId(), courseRepo.findCourseByCourseName("Cached Lookup Renamed").getId());
+	}
+
+	@Test
+	void deletingACourseOnlyEvictsCourseSets() {
+		Course kept = crService.saveCourse(new Course("Cached Kept", "Cached"));
+		Course removed = crService.saveCourse(new Course("Cached Removed", "Cached"));
+		Student student = new Student("Cached", "Deleted Course");
+		student.setCourses(new HashSet<>(List.of(kept, removed)));
+		stdService.saveStudent(student);
+		StudentFilter filter = StudentFilter.builder().lastName("Deleted Course").build();
+		assertEquals(Set.of("Cached Kept", "Cached Removed"), courseNames(stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getContent().get(0)));
+
+		Cache cache = entityManagerFactory.getCache();
+		assertTrue(cache.contains(Course.class, kept.getId()));
+		crService.deleteCourseById(removed.getId());
+
+		assertTrue(cache.contains(Course.class, kept.getId()));
+		assertEquals(Set.of("Cached Kept"), courseNames(stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getContent().get(0)));
+	}
+
+	@Test
+	void importedEnrollmentsEvictCourseSets() {
+		Student student = new Student("Cached", "Imported Enrollment");
+		student.setCourses(new HashSet<>(List.of(courses.get(0))));
+		Long studentId = stdService.saveStudent(student).getId();
+		StudentFilter filter = StudentFilter.builder().lastName("Imported Enrollment").build();
+		assertEquals(Set.of("Cached Course 0"), courseNames(stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getContent().get(0)));
+
+		String csv = "studentId,courseName\n" + studentId + ",Cached Course 2\n";
+		importService.importRecords(ImportKind.ENROLLMENTS, DataFormat.CSV, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(Set.of("Cached Course 0", "Cached Course 2"),
+				courseNames(stdService.retrieveStudents(filter, PageRequest.of(0, 5)).getContent().get(0)));
+	}
+
+	private double cacheHits(String region) {
+		return meterRegistry.get("hibernate.second.level.cache.requests").tags("region", region, "result", "hit")
+				.functionCounter().count();
+	}
+
+	private static Set<String> courseNames(Student student) {
+		return student.getCourses().stream().map(Course::getCourseName).collect(Collectors.toSet());
+	}
+}
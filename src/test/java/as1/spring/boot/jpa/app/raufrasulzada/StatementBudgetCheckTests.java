@@ -0,0 +1,50 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifies on a running server that a request over its statement budget fails while its response can still
+ * be changed, for views as well as for response bodies, whose converters commit the response as they write it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:statementbudgetcheck",
+		"spring.jpa.show-sql=false",
+		"sql-budget.fail-on-violation=true",
+		"sql-budget.routes[/courses]=0",
+		"sql-budget.routes[/api/courses]=0"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementBudgetCheckTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private CourseRepo courseRepo;
+
+	@BeforeAll
+	void seedCourses() {
+		courseRepo.save(new Course("Budget Check Course", "Budget Check"));
+	}
+
+	@Test
+	void viewsOverBudgetFail() {
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, restTemplate.getForEntity("/courses", String.class).getStatusCode());
+	}
+
+	@Test
+	void responseBodiesOverBudgetFail() {
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+				restTemplate.getForEntity("/api/courses?courseDepartment=Budget Check", String.class).getStatusCode());
+	}
+}
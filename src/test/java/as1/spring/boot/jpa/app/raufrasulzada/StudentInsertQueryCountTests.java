@@ -0,0 +1,81 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the statements of a bulk {@code saveAll} of students with enrollments with JDBC batching
+ * effectively disabled (one statement per row, as IDENTITY generation forces) and with the configured
+ * batch size, which sequence-generated IDs make possible. The throughput of both is measured by
+ * {@code StudentWriteBenchmarks} in {@code src/jmh}.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:studentinsert",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class StudentInsertQueryCountTests {
+
+	private static final int STUDENTS = 500;
+
+	@Autowired
+	private StudentRepo studentRepo;
+
+	@Autowired
+	private CourseRepo courseRepo;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void batchedInsertsUseFarFewerStatements() {
+		List<Course> courses = courseRepo.findAll();
+		long unbatched = saveStudents("Unbatched", STUDENTS, courses, 1);
+		long batched = saveStudents("Batched", STUDENTS, courses, null);
+
+		assertTrue(batched * 10 < unbatched, "expected batching to cut statements at least tenfold: " + batched + " vs " + unbatched);
+	}
+
+	/**
+	 * Saves students enrolled in every given course and returns the number of JDBC statements executed.
+	 */
+	private long saveStudents(String firstName, int count, List<Course> courses, Integer jdbcBatchSize) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		transactionTemplate.executeWithoutResult(status -> {
+			entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+			List<Course> enrolledCourses = courseRepo.findAllById(courses.stream().map(Course::getId).toList());
+			List<Student> students = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				Student student = new Student(firstName, "Student" + i);
+				student.setCourses(new HashSet<>(enrolledCourses));
+				students.add(student);
+			}
+			studentRepo.saveAll(students);
+		});
+		return statistics.getPrepareStatementCount();
+	}
+}
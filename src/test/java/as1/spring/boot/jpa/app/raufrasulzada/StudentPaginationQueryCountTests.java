@@ -0,0 +1,151 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.CourseRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.StudentRepo;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentFilter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that every paginated student listing loads a page of students and their courses
+ * with a constant number of SQL statements, regardless of how many courses each student has.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:paging",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StudentPaginationQueryCountTests {
+
+	private static final int STUDENTS_PER_GROUP = 7;
+
+	@Autowired
+	private StdService stdService;
+
+	@Autowired
+	private StudentRepo studentRepo;
+
+	@Autowired
+	private CourseRepo courseRepo;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	void seedStudents() {
+		transactionTemplate.executeWithoutResult(status -> {
+			List<Course> courses = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				courses.add(courseRepo.save(new Course("Paging Course " + i, "Paging")));
+			}
+			seedGroup("Light", courses.subList(0, 1));
+			seedGroup("Heavy", courses);
+		});
+	}
+
+	private void seedGroup(String firstName, List<Course> courses) {
+		for (int i = 0; i < STUDENTS_PER_GROUP; i++) {
+			Student student = new Student(firstName, "Paged");
+			student.setCourses(new HashSet<>(courses));
+			studentRepo.save(student);
+		}
+	}
+
+	@Test
+	void allStudentsPageUsesConstantStatements() {
+		assertConstantStatements(() -> stdService.retrieveStudents(new StudentFilter(), firstPage()));
+	}
+
+	@Test
+	void searchPagesUseSameStatementCountForLightAndHeavyStudents() {
+		for (String firstName : List.of("Light", "Heavy")) {
+			assertConstantStatements(() -> stdService.retrieveStudents(new StudentFilter(firstName, null, null), firstPage()));
+			assertConstantStatements(() -> stdService.retrieveStudents(new StudentFilter(firstName, "Paged", null), firstPage()));
+			assertConstantStatements(() -> stdService.retrieveStudents(new StudentFilter(firstName, null, "Paging Course 0"), firstPage()));
+			assertConstantStatements(() -> stdService.retrieveStudents(new StudentFilter(firstName, "Paged", "Paging Course 0"), firstPage()));
+		}
+		assertConstantStatements(() -> stdService.retrieveStudents(new StudentFilter(null, "Paged", null), firstPage()));
+		assertConstantStatements(() -> stdService.retrieveStudents(new StudentFilter(null, null, "Paging Course"), firstPage()));
+		assertConstantStatements(() -> stdService.retrieveStudents(new StudentFilter(null, "Paged", "Paging Course 0"), firstPage()));
+
+		assertEquals(countStatements(() -> stdService.retrieveStudents(new StudentFilter("Light", null, null), firstPage())),
+				countStatements(() -> stdService.retrieveStudents(new StudentFilter("Heavy", null, null), firstPage())));
+	}
+
+	@Test
+	void courseFilterReturnsEachStudentOnce() {
+		Page<Student> page = stdService.retrieveStudents(new StudentFilter("Heavy", null, "Paging Course"), PageRequest.of(0, 20));
+		assertEquals(STUDENTS_PER_GROUP, page.getTotalElements());
+		assertEquals(STUDENTS_PER_GROUP, page.getContent().stream().map(Student::getId).distinct().count());
+	}
+
+	@Test
+	void totalIsCachedUntilAStudentIsWritten() {
+		StudentFilter filter = new StudentFilter(null, "Paged", null);
+		long total = stdService.retrieveStudents(filter, firstPage()).getTotalElements();
+
+		// The slice query only; the total and the course sets of the students come from caches
+		assertEquals(1, countStatements(() -> stdService.retrieveStudents(filter, firstPage())));
+		assertTrue(stdService.retrieveStudentSlice(filter, firstPage()).hasNext());
+
+		Student added = stdService.saveStudent(new Student("Added", "Paged"));
+		try {
+			assertEquals(total + 1, stdService.retrieveStudents(filter, firstPage()).getTotalElements());
+		} finally {
+			stdService.deleteStudentById(added.getId());
+		}
+	}
+
+	/**
+	 * Asserts that a page is loaded with a slice query, at most one count query and one fetch query,
+	 * and that rendering the courses of every student issues no further statements.
+	 */
+	private void assertConstantStatements(Supplier<Page<Student>> pageLoader) {
+		long statements = countStatements(pageLoader);
+		assertTrue(statements <= 3, "expected at most 3 statements per page but was " + statements);
+	}
+
+	private long countStatements(Supplier<Page<Student>> pageLoader) {
+		// Load the page once first so one-time work such as building the course name index is not counted
+		pageLoader.get();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		Page<Student> page = pageLoader.get();
+		assertTrue(page.hasContent());
+		Set<String> courseNames = new HashSet<>();
+		for (Student student : page.getContent()) {
+			student.getCourses().forEach(course -> courseNames.add(course.getCourseName()));
+		}
+		return statistics.getPrepareStatementCount();
+	}
+
+	private Pageable firstPage() {
+		return PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "firstName"));
+	}
+}
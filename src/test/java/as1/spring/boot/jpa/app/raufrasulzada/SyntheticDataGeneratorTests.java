@@ -0,0 +1,75 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Course;
+import as1.spring.boot.jpa.app.raufrasulzada.Entities.Student;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.CrService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the synthetic dataset generated by the "generate" profile.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:generated",
+		"generator.students=5000",
+		"generator.courses=100",
+		"generator.departments=7",
+		"generator.enrollments-per-student=4",
+		"generator.batch-size=1000",
+		"generator.threads=4"
+})
+@ActiveProfiles("generate")
+class SyntheticDataGeneratorTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private StdService stdService;
+
+	@Autowired
+	private CrService crService;
+
+	@Test
+	void generatesConfiguredDatasetInsteadOfSampleData() {
+		assertEquals(5000, count("SELECT COUNT(*) FROM students"));
+		assertEquals(100, count("SELECT COUNT(*) FROM courses"));
+		assertEquals(7, crService.retrieveAllDepartments().size());
+		assertEquals(0, count("SELECT COUNT(*) FROM courses WHERE coursename = 'Calculus I'"));
+
+		long enrollments = count("SELECT COUNT(*) FROM studentcourse");
+		assertTrue(enrollments > 5000 * 3 && enrollments < 5000 * 5, "unexpected enrollment count " + enrollments);
+	}
+
+	@Test
+	void zipfDistributionFavoursTheFirstCourses() {
+		List<Long> perCourse = jdbcTemplate.queryForList(
+				"SELECT COUNT(sc.studentid) FROM courses c LEFT JOIN studentcourse sc ON sc.courseid = c.id GROUP BY c.id ORDER BY c.id", Long.class);
+		assertTrue(perCourse.get(0) > 10 * perCourse.get(perCourse.size() - 1));
+	}
+
+	@Test
+	void generatedIdsDoNotCollideWithLaterInserts() {
+		Course course = crService.saveCourse(new Course("Generated Follow-up", "Follow-up"));
+		Student student = stdService.saveStudent(new Student("Generated", "Follow-up"));
+		assertNotNull(course.getId());
+		assertNotNull(student.getId());
+		assertEquals(5001, count("SELECT COUNT(*) FROM students"));
+		stdService.deleteStudentById(student.getId());
+		crService.deleteCourseById(course.getId());
+	}
+
+	private long count(String sql) {
+		return jdbcTemplate.queryForObject(sql, Long.class);
+	}
+}
@@ -0,0 +1,113 @@
+package as1.spring.boot.jpa.app.raufrasulzada;
+
+import as1.spring.boot.jpa.app.raufrasulzada.Repositories.ConcurrencyLimitingDataSource;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.Implement.VirtualThreadConfig;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StdService;
+import as1.spring.boot.jpa.app.raufrasulzada.Service.StudentFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that database access is limited to a fixed number of concurrent connections
+ * when requests are handled on virtual threads.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:virtualthreads",
+		"spring.threads.virtual.enabled=true",
+		"db-concurrency.permits=2",
+		"db-concurrency.acquire-timeout=200ms"
+})
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadTests {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private StdService stdService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void concurrentCallersShareThePermits() throws Exception {
+		assertInstanceOf(ConcurrencyLimitingDataSource.class, dataSource);
+		AtomicInteger inUse = new AtomicInteger();
+		AtomicInteger maxInUse = new AtomicInteger();
+		ExecutorService callers = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<?>> calls = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				calls.add(callers.submit(() -> {
+					try (Connection connection = dataSource.getConnection()) {
+						maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+						connection.createStatement().execute("SELECT 1");
+						Thread.sleep(20);
+						inUse.decrementAndGet();
+					}
+					return null;
+				}));
+			}
+			for (Future<?> call : calls) {
+				call.get();
+			}
+		} finally {
+			callers.shutdown();
+		}
+		assertEquals(2, maxInUse.get());
+		assertEquals(2, ((ConcurrencyLimitingDataSource) dataSource).getAvailablePermits());
+	}
+
+	@Test
+	void waitingForAConnectionTimesOut() throws Exception {
+		try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+			assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+			assertFalse(first.isClosed());
+			assertFalse(second.isClosed());
+		}
+		try (Connection connection = dataSource.getConnection()) {
+			assertTrue(connection.isValid(1));
+		}
+	}
+
+	@Test
+	void servicesRunOnTheLimitedDataSource() {
+		assertFalse(stdService.retrieveStudents(new StudentFilter(), PageRequest.of(0, 5)).isEmpty());
+		assertNotNull(meterRegistry.find("jdbc.connections.waiting").gauge());
+	}
+
+	@Test
+	void onlyTheConnectionPoolsAreLimited() {
+		BeanPostProcessor postProcessor = VirtualThreadConfig.concurrencyLimitingDataSourcePostProcessor(2, Duration.ofSeconds(1));
+		DataSource other = new SimpleDriverDataSource();
+
+		assertSame(other, postProcessor.postProcessAfterInitialization(other, "reportingDataSource"));
+		assertInstanceOf(ConcurrencyLimitingDataSource.class, postProcessor.postProcessAfterInitialization(new SimpleDriverDataSource(), "readDataSource"));
+	}
+}